@@ -0,0 +1,41 @@
+package com.ita.home.client;
+
+import java.util.Arrays;
+
+/**
+ * 滚动延迟统计，保存最近N次成功调用的耗时，用于计算对冲请求的触发阈值
+ */
+class LatencyTracker {
+
+    private final long[] samples;
+    private int index;
+    private int count;
+
+    LatencyTracker(int windowSize) {
+        this.samples = new long[windowSize];
+    }
+
+    synchronized void record(long latencyMs) {
+        samples[index] = latencyMs;
+        index = (index + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /**
+     * 计算分位数
+     * @param percentile 分位（0-100）
+     * @param minSamples 最少样本数
+     * @return 样本不足时返回-1
+     */
+    synchronized long percentile(double percentile, int minSamples) {
+        if (count < minSamples || count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(rank, count - 1))];
+    }
+}
@@ -0,0 +1,433 @@
+package com.ita.home.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.config.cache.PlatformUsernameKey;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.dto.OjUserDataDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OJHunt上游客户端
+ * 基于连接池化的JDK HttpClient，按路由限制并发连接数，按平台限制并发请求数并设置读取超时，支持gzip响应
+ * 每个平台的调用依次经过熔断器、限流和舱壁，单个平台故障不会拖慢其他平台；限流等待令牌时不占用线程
+ * 按(平台, 用户名)保存上次响应的ETag/Last-Modified/内容摘要及解析结果，发送条件请求，数据未变化时不解析响应体并返回保存的结果
+ * 请求全程异步并受截止时间约束，超时后取消底层HTTP交换；可选对冲请求降低长尾延迟
+ */
+@Component
+@Slf4j
+public class OjHuntClient {
+
+    private final HttpClient httpClient;
+    private final OjHuntResponseParser responseParser;
+    private final OjHuntClientProperties properties;
+    private final PlatformConcurrencyLimiter concurrencyLimiter;
+    private final PlatformCircuitBreaker circuitBreaker;
+    private final PlatformRateLimiter rateLimiter;
+    private final Cache<PlatformUsernameKey, OjHuntValidator> validatorCache;
+
+    /** 等待令牌后继续执行舱壁、连接许可等后续步骤的线程池 */
+    private final Executor admissionExecutor;
+
+    /** 每个路由（scheme://host:port）的并发许可 */
+    private final Map<String, Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    /** 每个平台最近成功请求的耗时 */
+    private final Map<OjPlatformEnum, LatencyTracker> latencyTrackers = new EnumMap<>(OjPlatformEnum.class);
+
+    /** OJHunt API的基础URL */
+    @Value("${ita.oj.target}")
+    private String baseUrl;
+
+    public OjHuntClient(@Qualifier("ojHuntHttpClient") HttpClient httpClient,
+                        OjHuntResponseParser responseParser,
+                        OjHuntClientProperties properties,
+                        PlatformConcurrencyLimiter concurrencyLimiter,
+                        PlatformCircuitBreaker circuitBreaker,
+                        PlatformRateLimiter rateLimiter,
+                        @Qualifier("ojValidatorCache") Cache<PlatformUsernameKey, OjHuntValidator> validatorCache,
+                        @Qualifier("ojApiExecutorService") Executor admissionExecutor) {
+        this.httpClient = httpClient;
+        this.responseParser = responseParser;
+        this.properties = properties;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.validatorCache = validatorCache;
+        this.admissionExecutor = admissionExecutor;
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            latencyTrackers.put(platform, new LatencyTracker(properties.getHedge().getWindowSize()));
+        }
+    }
+
+    /**
+     * 异步获取用户在指定平台的数据
+     * 超过timeout后取消所有仍在进行的HTTP请求（不会继续占用连接和线程）；
+     * 开启对冲时，请求耗时超过该平台滚动p95仍未返回则再发一个相同请求，取先返回的结果
+     * @param platform 平台
+     * @param username 平台用户名
+     * @param priority 请求优先级，决定限流时的等待策略
+     * @param timeout 整个调用的截止时长，从调用时开始计算，包含限流、舱壁、连接许可的等待和对冲请求
+     * @return 获取结果，数据未变化时modified为false
+     */
+    public CompletableFuture<OjHuntFetchResult> fetchAsync(OjPlatformEnum platform, String username,
+                                                           UpstreamPriority priority, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // 先检查熔断器，熔断中的平台不消耗令牌也不等待舱壁；之后任一步被拒绝都要归还许可
+        if (!circuitBreaker.tryAcquirePermission(platform)) {
+            return CompletableFuture.failedFuture(
+                    new IOException(platform.getPlatformCode() + "平台熔断中，跳过本次调用"));
+        }
+        // 令牌充足时在调用线程中继续；需要等待时不占用线程，拿到令牌后在admissionExecutor中继续
+        return rateLimiter.acquireAsync(platform, priority, deadline, admissionExecutor)
+                .thenCompose(acquired -> {
+                    if (!acquired) {
+                        circuitBreaker.releasePermission(platform);
+                        return CompletableFuture.failedFuture(
+                                new IOException(platform.getPlatformCode() + "平台请求被限流: priority=" + priority));
+                    }
+                    return send(platform, username, priority, deadline);
+                });
+    }
+
+    /**
+     * 已获得熔断器许可和令牌后，依次获取舱壁和路由连接许可并发送请求，每一步只等待到截止时间为止
+     */
+    private CompletableFuture<OjHuntFetchResult> send(OjPlatformEnum platform, String username,
+                                                      UpstreamPriority priority, long deadline) {
+        URI uri = buildUri(platform, username);
+        Semaphore routePermit = routePermits.computeIfAbsent(routeOf(uri),
+                route -> new Semaphore(properties.getMaxConnectionsPerRoute()));
+
+        try {
+            // 舱壁：平台并发已满时不长时间占用调用线程
+            long bulkheadWaitMs = Math.min(properties.getBulkheadMaxWaitMs(), remainingMs(deadline));
+            if (!concurrencyLimiter.tryAcquire(platform, bulkheadWaitMs)) {
+                circuitBreaker.releasePermission(platform);
+                return CompletableFuture.failedFuture(
+                        new IOException(platform.getPlatformCode() + "平台并发请求已满，拒绝本次调用"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission(platform);
+            return CompletableFuture.failedFuture(e);
+        }
+        if (!acquireRoutePermit(routePermit, deadline)) {
+            concurrencyLimiter.release(platform);
+            circuitBreaker.releasePermission(platform);
+            return CompletableFuture.failedFuture(new IOException("等待路由连接许可超时: " + routeOf(uri)));
+        }
+        // 等待许可已用完全部时间时不再发出请求；没有请求到达上游，不计入熔断
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+            routePermit.release();
+            concurrencyLimiter.release(platform);
+            circuitBreaker.releasePermission(platform);
+            return CompletableFuture.failedFuture(
+                    new TimeoutException(platform.getPlatformCode() + "平台请求在发出前已超过截止时间"));
+        }
+        Duration timeout = Duration.ofNanos(remainingNanos);
+
+        PlatformUsernameKey validatorKey = new PlatformUsernameKey(platform, username);
+        OjHuntValidator validator = validatorCache.getIfPresent(validatorKey);
+        HttpRequest request = buildRequest(platform, uri, validator, timeout);
+
+        long startTime = System.nanoTime();
+        Exchange exchange = new Exchange(platform, request, routePermit);
+        // 主请求的舱壁许可在整个调用结束时释放
+        exchange.startAttempt(() -> { });
+        scheduleHedge(exchange, priority);
+
+        // 截止时间到达或已有结果后，取消仍在进行的请求，真正中断底层HTTP交换
+        exchange.winner.orTimeout(remainingNanos, TimeUnit.NANOSECONDS)
+                .whenComplete((response, throwable) -> exchange.cancelAll());
+
+        return exchange.winner
+                .thenApply(response -> handleResponse(platform, username, validatorKey, validator, response))
+                .whenComplete((result, throwable) -> {
+                    concurrencyLimiter.release(platform);
+                    // 上游正常应答的业务错误（如用户不存在）按成功记录，否则半开状态的试探许可会被占住
+                    if (throwable == null || !isUpstreamFailure(throwable)) {
+                        circuitBreaker.onSuccess(platform, elapsedMs(startTime));
+                    } else {
+                        circuitBreaker.onError(platform, elapsedMs(startTime));
+                    }
+                });
+    }
+
+    /**
+     * 获取路由连接许可，最多等待连接超时时长，且不超过截止时间
+     */
+    private boolean acquireRoutePermit(Semaphore routePermit, long deadline) {
+        try {
+            return routePermit.tryAcquire(Math.min(properties.getConnectTimeoutMs(), remainingMs(deadline)),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 主请求超过滚动p95仍未返回时发出对冲请求
+     * 对冲请求同样占用平台舱壁许可，但不等待令牌、舱壁和连接许可，拿不到就放弃对冲；
+     * 检查前先登记为进行中，避免主请求恰好在此期间失败时整体提前失败
+     */
+    private void scheduleHedge(Exchange exchange, UpstreamPriority priority) {
+        OjHuntClientProperties.Hedge hedge = properties.getHedge();
+        if (!hedge.isEnabled()) {
+            return;
+        }
+        long delayMs = latencyTrackers.get(exchange.platform).percentile(hedge.getPercentile(), hedge.getMinSamples());
+        if (delayMs < 0) {
+            return;
+        }
+        CompletableFuture.delayedExecutor(Math.max(delayMs, hedge.getMinDelayMs()), TimeUnit.MILLISECONDS).execute(() -> {
+            exchange.pending.incrementAndGet();
+            if (exchange.winner.isDone()
+                    || !rateLimiter.tryAcquire(exchange.platform, priority)
+                    || !concurrencyLimiter.tryAcquireNow(exchange.platform)) {
+                exchange.attemptFailed();
+                return;
+            }
+            if (!exchange.routePermit.tryAcquire()) {
+                concurrencyLimiter.release(exchange.platform);
+                exchange.attemptFailed();
+                return;
+            }
+            log.info("{}平台请求超过p95({}ms)未返回，发出对冲请求", exchange.platform.getPlatformCode(), delayMs);
+            exchange.startAttempt(() -> concurrencyLimiter.release(exchange.platform));
+        });
+    }
+
+    /**
+     * 距截止时间剩余的毫秒数，已过期时为0
+     */
+    private static long remainingMs(long deadline) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private OjHuntFetchResult handleResponse(OjPlatformEnum platform, String username, PlatformUsernameKey validatorKey,
+                                             OjHuntValidator validator, HttpResponse<byte[]> response) {
+        try {
+            if (response.statusCode() == 304 && validator != null) {
+                return OjHuntFetchResult.notModified(validator.toData());
+            }
+            if (response.statusCode() != 200) {
+                throw new UpstreamStatusException(response.statusCode(),
+                        String.format("%s平台API返回状态码%d: user=%s",
+                                platform.getPlatformCode(), response.statusCode(), username));
+            }
+
+            // 边解压边解析，同时累计解压后内容的摘要，不再另外生成一份解压后的字节数组
+            MessageDigest digest = sha256();
+            OjUserDataDto data;
+            try (DigestInputStream body = new DigestInputStream(openBody(response), digest)) {
+                data = responseParser.parse(body);
+                // 解析器读到JSON结束即停止，读完剩余内容使摘要覆盖整个响应体
+                body.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new MalformedResponseException(platform.getPlatformCode() + "平台响应体无法解析: user=" + username, e);
+            }
+            byte[] contentHash = digest.digest();
+            if (validator != null && Arrays.equals(validator.getContentHash(), contentHash)) {
+                return OjHuntFetchResult.notModified(validator.toData());
+            }
+
+            if (Boolean.FALSE.equals(data.getError()) && data.getData() != null) {
+                validatorCache.put(validatorKey, new OjHuntValidator(
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null),
+                        contentHash,
+                        data.getData().getSolved(),
+                        data.getData().getSubmissions()));
+            }
+            return OjHuntFetchResult.modified(data);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private URI buildUri(OjPlatformEnum platform, String username) {
+        return UriComponentsBuilder.fromUriString(baseUrl)
+                .pathSegment(platform.getPlatformCode(), username)
+                .encode()
+                .build()
+                .toUri();
+    }
+
+    private HttpRequest buildRequest(OjPlatformEnum platform, URI uri, OjHuntValidator validator, Duration timeout) {
+        // 剩余时间不足1毫秒时仍给一个正数超时，HttpRequest不接受0
+        long readTimeoutMs = Math.max(1, Math.min(properties.getReadTimeoutMs(platform.getPlatformId()), timeout.toMillis()));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(readTimeoutMs))
+                .header("Accept", "application/json")
+                .GET();
+        if (properties.isGzipEnabled()) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        if (validator != null && validator.getEtag() != null) {
+            builder.header("If-None-Match", validator.getEtag());
+        }
+        if (validator != null && validator.getLastModified() != null) {
+            builder.header("If-Modified-Since", validator.getLastModified());
+        }
+        return builder.build();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JDK缺少SHA-256算法", e);
+        }
+    }
+
+    /**
+     * JDK HttpClient不会自动解压，根据Content-Encoding手动处理gzip
+     */
+    private InputStream openBody(HttpResponse<byte[]> response) throws IOException {
+        InputStream body = new ByteArrayInputStream(response.body());
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+        return "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(body) : body;
+    }
+
+    /**
+     * 是否计入熔断失败：5xx、429、超时和网络IO错误
+     * 其他状态码和无法解析的响应体说明上游仍在正常应答，不计入
+     */
+    private static boolean isUpstreamFailure(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof UpstreamStatusException statusException) {
+            return statusException.statusCode >= 500 || statusException.statusCode == 429;
+        }
+        if (cause instanceof MalformedResponseException) {
+            return false;
+        }
+        return cause instanceof IOException || cause instanceof TimeoutException;
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String routeOf(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * 上游返回了非200状态码
+     */
+    private static final class UpstreamStatusException extends IOException {
+        private final int statusCode;
+
+        private UpstreamStatusException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+    }
+
+    /**
+     * 上游返回200但响应体无法解压或解析
+     */
+    private static final class MalformedResponseException extends IOException {
+        private MalformedResponseException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * 一次逻辑调用，包含主请求和可能的对冲请求，任一请求成功即完成
+     */
+    private final class Exchange {
+        private final OjPlatformEnum platform;
+        private final HttpRequest request;
+        private final Semaphore routePermit;
+        private final List<CompletableFuture<HttpResponse<byte[]>>> attempts = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<HttpResponse<byte[]>> winner = new CompletableFuture<>();
+        /** 尚未结束的请求数（含正在准备的对冲请求），全部失败时整体失败 */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        /** 最近一次请求失败的原因 */
+        private volatile Throwable lastFailure;
+
+        private Exchange(OjPlatformEnum platform, HttpRequest request, Semaphore routePermit) {
+            this.platform = platform;
+            this.request = request;
+            this.routePermit = routePermit;
+        }
+
+        /**
+         * 发出一个请求，调用前需已获取路由许可并计入pending
+         * @param onFinish 该请求结束时额外释放的资源
+         */
+        private void startAttempt(Runnable onFinish) {
+            long attemptStart = System.nanoTime();
+            CompletableFuture<HttpResponse<byte[]>> attempt =
+                    httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            attempts.add(attempt);
+            attempt.whenComplete((response, throwable) -> {
+                routePermit.release();
+                onFinish.run();
+                if (throwable == null) {
+                    latencyTrackers.get(platform).record(elapsedMs(attemptStart));
+                    winner.complete(response);
+                } else {
+                    lastFailure = throwable;
+                    attemptFailed();
+                }
+            });
+            // 与截止时间并发时，确保迟到的对冲请求也会被取消
+            if (winner.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        /**
+         * 一个已计入pending的请求失败或放弃发出，最后一个结束时以最近的失败原因整体失败
+         */
+        private void attemptFailed() {
+            if (pending.decrementAndGet() == 0) {
+                winner.completeExceptionally(lastFailure != null ? lastFailure
+                        : new IOException(platform.getPlatformCode() + "平台请求全部失败"));
+            }
+        }
+
+        private void cancelAll() {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ita.home.client;
+
+import com.ita.home.model.dto.OjUserDataDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 单个平台的获取结果
+ * modified=false表示上游数据自上次获取后未变化（304或响应体摘要一致），此时data为与校验信息一起保存的上次数据
+ */
+@Getter
+@AllArgsConstructor
+public class OjHuntFetchResult {
+
+    /** 数据是否有变化 */
+    private final boolean modified;
+
+    /** 最新数据，未变化时为上次响应的数据 */
+    private final OjUserDataDto data;
+
+    public static OjHuntFetchResult modified(OjUserDataDto data) {
+        return new OjHuntFetchResult(true, data);
+    }
+
+    public static OjHuntFetchResult notModified(OjUserDataDto lastData) {
+        return new OjHuntFetchResult(false, lastData);
+    }
+}
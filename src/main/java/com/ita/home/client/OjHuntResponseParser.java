@@ -0,0 +1,129 @@
+package com.ita.home.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.model.dto.OjUserDataDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * OJHunt响应的流式解析器
+ * 基于Jackson token逐个读取，默认只取error、solved、submissions等标量字段，
+ * solvedList直接跳过而不构建对象，避免热门用户的上千条题目ID产生大量垃圾对象
+ */
+@Component
+public class OjHuntResponseParser {
+
+    private final JsonFactory jsonFactory;
+    private final OjHuntClientProperties properties;
+
+    public OjHuntResponseParser(ObjectMapper objectMapper, OjHuntClientProperties properties) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.properties = properties;
+    }
+
+    /**
+     * 按配置决定是否解析solvedList
+     */
+    public OjUserDataDto parse(InputStream body) throws IOException {
+        return parse(body, properties.isParseSolvedList());
+    }
+
+    /**
+     * 解析OJHunt响应
+     * @param body 响应体
+     * @param includeSolvedList 是否保留solvedList，保留时写入PackedSolvedList，不为每个题目ID创建String
+     */
+    public OjUserDataDto parse(InputStream body, boolean includeSolvedList) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            // 响应体由调用方关闭，解析结束后调用方可能还要读完剩余内容
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("OJHunt响应不是JSON对象");
+            }
+
+            OjUserDataDto result = new OjUserDataDto();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "error" -> result.setError(readError(parser, token));
+                    case "data" -> {
+                        if (token == JsonToken.START_OBJECT) {
+                            result.setData(readUserData(parser, includeSolvedList));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * error字段正常为布尔值，出错时也可能是错误信息字符串，非false一律视为出错
+     */
+    private Boolean readError(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_FALSE -> false;
+            case VALUE_NULL -> null;
+            case VALUE_TRUE -> true;
+            default -> {
+                parser.skipChildren();
+                yield true;
+            }
+        };
+    }
+
+    private OjUserDataDto.UserData readUserData(JsonParser parser, boolean includeSolvedList) throws IOException {
+        OjUserDataDto.UserData data = new OjUserDataDto.UserData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "solved" -> data.setSolved(readInteger(parser, token));
+                case "submissions" -> data.setSubmissions(readInteger(parser, token));
+                case "solvedList" -> {
+                    if (includeSolvedList && token == JsonToken.START_ARRAY) {
+                        data.setSolvedList(readSolvedList(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private Integer readInteger(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_STRING) {
+            return parser.getValueAsInt();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private List<String> readSolvedList(JsonParser parser) throws IOException {
+        PackedSolvedList.Builder builder = PackedSolvedList.builder();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_STRING) {
+                builder.add(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                builder.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return builder.build();
+    }
+}
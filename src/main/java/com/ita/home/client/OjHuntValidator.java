@@ -0,0 +1,43 @@
+package com.ita.home.client;
+
+import com.ita.home.model.dto.OjUserDataDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 上游响应的校验信息，用于条件请求
+ * ETag和Last-Modified来自响应头，contentHash为解压后响应体的摘要（上游不返回校验头时使用）；
+ * 同时保存该响应解析出的解题数和提交数，上游返回304时直接使用，不依赖调用方自己保存的数据
+ */
+@Getter
+@AllArgsConstructor
+public class OjHuntValidator {
+
+    /** 响应头ETag */
+    private final String etag;
+
+    /** 响应头Last-Modified */
+    private final String lastModified;
+
+    /** 响应体SHA-256摘要 */
+    private final byte[] contentHash;
+
+    /** 该响应中的解决题目数量 */
+    private final Integer solved;
+
+    /** 该响应中的提交次数 */
+    private final Integer submissions;
+
+    /**
+     * 还原为上次响应的数据，不含已解决题目列表
+     */
+    public OjUserDataDto toData() {
+        return OjUserDataDto.builder()
+                .error(false)
+                .data(OjUserDataDto.UserData.builder()
+                        .solved(solved)
+                        .submissions(submissions)
+                        .build())
+                .build();
+    }
+}
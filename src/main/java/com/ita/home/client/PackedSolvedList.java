@@ -0,0 +1,178 @@
+package com.ita.home.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * 紧凑的已解决题目列表：所有题目ID按UTF-8拼接在一个byte[]中，另用int[]记录每个ID的起始位置
+ * 题目ID按字节序排序并去重，contains通过二分查找完成；整个列表只有两个数组，不为每个ID创建String，
+ * get时才解码出String，因此适合保存后很少逐个读取的场景
+ */
+public final class PackedSolvedList extends AbstractList<String> implements RandomAccess {
+
+    private static final PackedSolvedList EMPTY = new PackedSolvedList(new byte[0], new int[]{0});
+
+    /** 按顺序拼接的题目ID */
+    private final byte[] data;
+
+    /** 第i个ID位于data[offsets[i], offsets[i + 1])，长度为size + 1 */
+    private final int[] offsets;
+
+    private PackedSolvedList(byte[] data, int[] offsets) {
+        this.data = data;
+        this.offsets = offsets;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new String(data, offsets[index], offsets[index + 1] - offsets[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof String id)) {
+            return -1;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(data, offsets[mid], offsets[mid + 1], key, 0, key.length);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * 逐个追加题目ID，build时排序去重并裁剪到实际大小
+     */
+    public static final class Builder {
+
+        private byte[] buffer = new byte[256];
+        private int length;
+        /** 每个ID的起始位置，第count个元素为length */
+        private int[] starts = new int[17];
+        private int count;
+
+        private Builder() {
+        }
+
+        /**
+         * 追加字符数组中的一段，ASCII字符直接写入，不创建中间String
+         */
+        public Builder add(char[] chars, int offset, int len) {
+            for (int i = offset; i < offset + len; i++) {
+                if (chars[i] >= 0x80) {
+                    return add(new String(chars, offset, len));
+                }
+            }
+            ensureCapacity(len);
+            for (int i = offset; i < offset + len; i++) {
+                buffer[length++] = (byte) chars[i];
+            }
+            return finishEntry();
+        }
+
+        public Builder add(String id) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+            return finishEntry();
+        }
+
+        public PackedSolvedList build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            int[] order = sortedOrder();
+            int[] offsets = new int[order.length + 1];
+            byte[] data = new byte[length];
+            int size = 0;
+            int position = 0;
+            for (int index : order) {
+                int start = starts[index];
+                int end = starts[index + 1];
+                // 排序后重复的ID相邻，与上一个相同时跳过
+                if (size > 0 && Arrays.equals(data, offsets[size - 1], position, buffer, start, end)) {
+                    continue;
+                }
+                System.arraycopy(buffer, start, data, position, end - start);
+                position += end - start;
+                offsets[++size] = position;
+            }
+            return new PackedSolvedList(Arrays.copyOf(data, position), Arrays.copyOf(offsets, size + 1));
+        }
+
+        /**
+         * OJHunt返回的列表通常已经有序，此时直接按原顺序；否则按字节序排序
+         */
+        private int[] sortedOrder() {
+            int[] order = new int[count];
+            boolean sorted = true;
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+                if (i > 0 && compare(i - 1, i) > 0) {
+                    sorted = false;
+                }
+            }
+            if (sorted) {
+                return order;
+            }
+            return Arrays.stream(order).boxed()
+                    .sorted(this::compare)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private int compare(int a, int b) {
+            return Arrays.compareUnsigned(buffer, starts[a], starts[a + 1], buffer, starts[b], starts[b + 1]);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        private Builder finishEntry() {
+            count++;
+            if (count + 1 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[count] = length;
+            return this;
+        }
+    }
+}
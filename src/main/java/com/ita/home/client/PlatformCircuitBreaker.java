@@ -0,0 +1,185 @@
+package com.ita.home.client;
+
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.enums.OjPlatformEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 按平台的熔断器
+ * CLOSED：正常放行，按最近N次调用的失败率和慢调用率判断是否熔断
+ * OPEN：直接拒绝调用，等待一段时间后进入HALF_OPEN
+ * HALF_OPEN：放行少量试探调用，全部成功则恢复CLOSED，任一失败重新OPEN
+ */
+@Component
+@Slf4j
+public class PlatformCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final OjHuntClientProperties.CircuitBreaker config;
+    private final Map<OjPlatformEnum, Breaker> breakers = new EnumMap<>(OjPlatformEnum.class);
+
+    public PlatformCircuitBreaker(OjHuntClientProperties properties) {
+        this.config = properties.getCircuitBreaker();
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            breakers.put(platform, new Breaker(platform));
+        }
+    }
+
+    /**
+     * 尝试获取调用许可
+     * @return false表示熔断中，应直接跳过该平台
+     */
+    public boolean tryAcquirePermission(OjPlatformEnum platform) {
+        return !config.isEnabled() || breakers.get(platform).tryAcquirePermission();
+    }
+
+    /**
+     * 归还已获取但最终没有发出调用的许可（如随后被限流或舱壁拒绝），半开状态下让出试探名额
+     */
+    public void releasePermission(OjPlatformEnum platform) {
+        if (config.isEnabled()) {
+            breakers.get(platform).releasePermission();
+        }
+    }
+
+    /**
+     * 熔断器是否处于打开状态（且还未到进入半开的时间）
+     */
+    public boolean isOpen(OjPlatformEnum platform) {
+        return config.isEnabled() && breakers.get(platform).isOpen();
+    }
+
+    /**
+     * 记录一次成功调用
+     */
+    public void onSuccess(OjPlatformEnum platform, long durationMs) {
+        breakers.get(platform).record(false, durationMs);
+    }
+
+    /**
+     * 记录一次失败调用
+     */
+    public void onError(OjPlatformEnum platform, long durationMs) {
+        breakers.get(platform).record(true, durationMs);
+    }
+
+    /**
+     * 获取平台熔断器当前状态
+     */
+    public State getState(OjPlatformEnum platform) {
+        return breakers.get(platform).getState();
+    }
+
+    /**
+     * 单个平台的熔断器状态，使用环形数组记录最近N次调用结果
+     */
+    private final class Breaker {
+        private final OjPlatformEnum platform;
+        private final boolean[] failed;
+        private final boolean[] slow;
+
+        private State state = State.CLOSED;
+        private int index;
+        private int recorded;
+        private int failedCalls;
+        private int slowCalls;
+        private long openedAt;
+        private int halfOpenPermits;
+        private int halfOpenSuccesses;
+
+        private Breaker(OjPlatformEnum platform) {
+            this.platform = platform;
+            this.failed = new boolean[config.getSlidingWindowSize()];
+            this.slow = new boolean[config.getSlidingWindowSize()];
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < config.getWaitDurationInOpenMs()) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits >= config.getPermittedCallsInHalfOpen()) {
+                    return false;
+                }
+                halfOpenPermits++;
+            }
+            return true;
+        }
+
+        synchronized void releasePermission() {
+            if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return state == State.OPEN
+                    && System.currentTimeMillis() - openedAt < config.getWaitDurationInOpenMs();
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized void record(boolean failure, long durationMs) {
+            boolean slowCall = durationMs >= config.getSlowCallDurationMs();
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (failure || slowCall) {
+                        transitionTo(State.OPEN);
+                    } else if (++halfOpenSuccesses >= config.getPermittedCallsInHalfOpen()) {
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                case CLOSED -> {
+                    // 窗口已满时先移除最旧的一条记录
+                    if (recorded == failed.length) {
+                        failedCalls -= failed[index] ? 1 : 0;
+                        slowCalls -= slow[index] ? 1 : 0;
+                    } else {
+                        recorded++;
+                    }
+                    failed[index] = failure;
+                    slow[index] = slowCall;
+                    failedCalls += failure ? 1 : 0;
+                    slowCalls += slowCall ? 1 : 0;
+                    index = (index + 1) % failed.length;
+
+                    if (recorded >= config.getMinimumCalls()
+                            && (failedCalls * 100 >= config.getFailureRateThreshold() * recorded
+                            || slowCalls * 100 >= config.getSlowCallRateThreshold() * recorded)) {
+                        transitionTo(State.OPEN);
+                    }
+                }
+                default -> {
+                    // OPEN状态下迟到的调用结果不再统计
+                }
+            }
+        }
+
+        private void transitionTo(State newState) {
+            log.warn("平台{}熔断器状态变更: {} -> {}（窗口内失败{}次，慢调用{}次，共{}次）",
+                    platform.getPlatformName(), state, newState, failedCalls, slowCalls, recorded);
+            state = newState;
+            index = 0;
+            recorded = 0;
+            failedCalls = 0;
+            slowCalls = 0;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+            if (newState == State.OPEN) {
+                openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ita.home.client;
+
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.enums.OjPlatformEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按平台限制上游并发请求数（舱壁）
+ * 并发上限由信号量控制而不是线程池大小，线程池切换为虚拟线程后依然能限制对单个平台的压力，
+ * 单个平台变慢时也只会占满自己的许可，不会拖垮其他平台
+ */
+@Component
+@Slf4j
+public class PlatformConcurrencyLimiter {
+
+    private final Map<OjPlatformEnum, Semaphore> permits = new EnumMap<>(OjPlatformEnum.class);
+
+    public PlatformConcurrencyLimiter(OjHuntClientProperties properties) {
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            int maxConcurrency = properties.getMaxConcurrency(platform.getPlatformId());
+            permits.put(platform, new Semaphore(maxConcurrency, true));
+            log.info("平台{}最大并发请求数: {}", platform.getPlatformName(), maxConcurrency);
+        }
+    }
+
+    /**
+     * 获取平台并发许可，没有可用许可时阻塞等待
+     */
+    public void acquire(OjPlatformEnum platform) throws InterruptedException {
+        permits.get(platform).acquire();
+    }
+
+    /**
+     * 在限定时间内尝试获取平台并发许可（舱壁隔离），超时返回false
+     */
+    public boolean tryAcquire(OjPlatformEnum platform, long timeoutMs) throws InterruptedException {
+        return permits.get(platform).tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 立即尝试获取平台并发许可，不等待也不排队，用于可以放弃的附加请求（如对冲请求）
+     */
+    public boolean tryAcquireNow(OjPlatformEnum platform) {
+        return permits.get(platform).tryAcquire();
+    }
+
+    /**
+     * 释放平台并发许可
+     */
+    public void release(OjPlatformEnum platform) {
+        permits.get(platform).release();
+    }
+
+    /**
+     * 获取平台当前可用的许可数
+     */
+    public int availablePermits(OjPlatformEnum platform) {
+        return permits.get(platform).availablePermits();
+    }
+}
@@ -0,0 +1,133 @@
+package com.ita.home.client;
+
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.enums.OjPlatformEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按平台的令牌桶限流器
+ * 所有上游请求共用同一个桶，桶内按比例为交互请求预留令牌：
+ * 后台请求只能使用预留部分以外的令牌，不足时等待；交互请求可以使用全部令牌。
+ * 等待令牌时不占用线程，到预计有令牌的时刻再提交重试任务
+ */
+@Component
+@Slf4j
+public class PlatformRateLimiter {
+
+    private final OjHuntClientProperties.RateLimit config;
+    private final Map<OjPlatformEnum, TokenBucket> buckets = new EnumMap<>(OjPlatformEnum.class);
+
+    public PlatformRateLimiter(OjHuntClientProperties properties) {
+        this.config = properties.getRateLimit();
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            double ratePerSecond = config.getRatePerSecond(platform.getPlatformId());
+            double burst = config.getBurst(platform.getPlatformId());
+            // 至少给后台请求留出一个令牌的空间
+            double reserved = Math.min(burst * config.getInteractiveReservedRatio(), burst - 1);
+            buckets.put(platform, new TokenBucket(ratePerSecond, burst, Math.max(reserved, 0)));
+            log.info("平台{}限流配置: rate={}/s, burst={}, 交互预留={}",
+                    platform.getPlatformName(), ratePerSecond, burst, reserved);
+        }
+    }
+
+    /**
+     * 获取一个令牌，令牌不足时异步等待，最多等到该优先级的最长等待时间或调用方的截止时间，以先到者为准
+     * @param callDeadlineNanos 调用方的截止时间（System.nanoTime）
+     * @param executor 执行重试任务的线程池，future在重试成功或放弃时于该线程池中完成
+     * @return 是否获取成功；有令牌时返回已完成的future
+     */
+    public CompletableFuture<Boolean> acquireAsync(OjPlatformEnum platform, UpstreamPriority priority,
+                                                   long callDeadlineNanos, Executor executor) {
+        if (!config.isEnabled()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        long maxWaitMs = priority == UpstreamPriority.BACKGROUND
+                ? config.getBackgroundMaxWaitMs() : config.getInteractiveMaxWaitMs();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        // nanoTime可能溢出，按差值比较
+        if (callDeadlineNanos - deadline < 0) {
+            deadline = callDeadlineNanos;
+        }
+        CompletableFuture<Boolean> acquired = new CompletableFuture<>();
+        acquireBefore(buckets.get(platform), priority, deadline, executor, acquired);
+        return acquired;
+    }
+
+    private void acquireBefore(TokenBucket bucket, UpstreamPriority priority, long deadline,
+                               Executor executor, CompletableFuture<Boolean> acquired) {
+        long waitNanos = bucket.tryAcquire(priority);
+        if (waitNanos == 0) {
+            acquired.complete(true);
+            return;
+        }
+        // 速率很低时waitNanos可能接近Long.MAX_VALUE，与剩余时间比较而不是相加，避免溢出
+        if (waitNanos > deadline - System.nanoTime()) {
+            acquired.complete(false);
+            return;
+        }
+        // 其他请求可能先拿走令牌，到时仍不足时继续等待
+        CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor)
+                .execute(() -> acquireBefore(bucket, priority, deadline, executor, acquired));
+    }
+
+    /**
+     * 尝试立即获取一个令牌，不等待
+     */
+    public boolean tryAcquire(OjPlatformEnum platform, UpstreamPriority priority) {
+        return !config.isEnabled() || buckets.get(platform).tryAcquire(priority) == 0;
+    }
+
+    /**
+     * 无锁令牌桶，状态整体替换并通过CAS更新
+     */
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double burst;
+        private final double reserved;
+        private final AtomicReference<State> state;
+
+        private TokenBucket(double ratePerSecond, double burst, double reserved) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.reserved = reserved;
+            this.state = new AtomicReference<>(new State(burst, System.nanoTime()));
+        }
+
+        /**
+         * 尝试取一个令牌
+         * @return 0表示成功，否则为预计还需等待的纳秒数
+         */
+        long tryAcquire(UpstreamPriority priority) {
+            double required = (priority == UpstreamPriority.BACKGROUND ? reserved : 0) + 1;
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = Math.min(burst, current.tokens + (now - current.timestamp) * tokensPerNano);
+                if (tokens < required) {
+                    return Math.max(1, (long) Math.ceil((required - tokens) / tokensPerNano));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long timestamp;
+
+        private State(double tokens, long timestamp) {
+            this.tokens = tokens;
+            this.timestamp = timestamp;
+        }
+    }
+}
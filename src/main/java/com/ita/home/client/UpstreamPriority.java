@@ -0,0 +1,13 @@
+package com.ita.home.client;
+
+/**
+ * 上游请求优先级
+ */
+public enum UpstreamPriority {
+
+    /** 用户交互触发的请求，可使用为其预留的令牌 */
+    INTERACTIVE,
+
+    /** 定时任务等后台请求，令牌不足时排队等待 */
+    BACKGROUND
+}
@@ -1,34 +1,57 @@
 package com.ita.home.config;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.ita.home.client.OjHuntValidator;
+import com.ita.home.config.cache.CacheMemoryEndpoint;
+import com.ita.home.config.cache.CacheWeighers;
+import com.ita.home.config.cache.CaffeineRankingCache;
+import com.ita.home.config.cache.OjDataCacheLoader;
+import com.ita.home.config.cache.OjPlatformDataCache;
+import com.ita.home.config.cache.PackedOjUserData;
+import com.ita.home.config.cache.PlatformUserKey;
+import com.ita.home.config.cache.PlatformUsernameKey;
 import com.ita.home.model.entity.UserPlatformRanking;
-import com.ita.home.model.vo.OjUserDataVo;
 import com.ita.home.model.vo.RankingPageVo;
-import com.ita.home.model.vo.UserPlatformRankingVo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * @Author: Mikkeyf
  * @CreateTime: 2025/9/25 15:23
  */
 @Configuration
+@RequiredArgsConstructor
 @Slf4j
 public class CaffeineConfig {
+    /** 所有缓存的命中率、加载、淘汰和容量指标注册到这里，经 /actuator/prometheus 导出 */
+    private final MeterRegistry meterRegistry;
+    private final OjCacheProperties cacheProperties;
+    private final CacheMemoryEndpoint cacheMemoryEndpoint;
 
     @Value("${ita.oj.cache.max-size}")
     private Long maxSize;
 
-    @Value("${ita.oj.cache.expire-hours}")
-    private Integer expireHours;
-
     @Value("${ita.oj.cache.active-user-days}")
     private Integer activeUserDays;
 
@@ -36,60 +59,154 @@ public class CaffeineConfig {
     private Integer asyncUpdateTimeoutSeconds;
 
     /**
-     * key: oj_update_lock:123
-     * value: OjUserDataVo 对象
-     * 表示当前缓存中，用户oj所缓存的UserDataVo对象
+     * key: userId
+     * value: PackedOjUserData 对象
+     * 表示当前缓存中，用户oj数据的紧凑形式，读取时再展开为OjUserDataVo
+     * 写入超过软过期（最短的平台新鲜期）后，读取时返回旧值并在后台刷新；超过硬过期才会被移除
      */
     @Bean
-    public Cache<String, OjUserDataVo> ojDataCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterWrite(expireHours, TimeUnit.HOURS)
-                .recordStats() // 开启统计
-                .removalListener((key, value, cause) -> {
-                    log.debug("缓存被移除: key={}, cause={}", key, cause);
-                })
-                .build();
+    public AsyncLoadingCache<Long, PackedOjUserData> ojDataCache(OjDataCacheLoader ojDataCacheLoader,
+                                                                 @Qualifier("ojCacheRefreshExecutor") Executor executor) {
+        AsyncLoadingCache<Long, PackedOjUserData> cache = newBuilder("ojDataCache", CacheWeighers.OJ_DATA, maxSize,
+                        Duration.ofHours(cacheProperties.getHardExpireHours()), null)
+                .refreshAfterWrite(cacheProperties.getMinPlatformTtl())
+                .executor(executor)
+                .buildAsync(ojDataCacheLoader);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ojDataCache");
+        cacheMemoryEndpoint.register("ojDataCache", cache.synchronous(), CacheWeighers.OJ_DATA);
+        return cache;
+    }
+
+    /**
+     * key: PlatformUserKey(平台序号, userId)
+     * value: 该用户在该平台最近一次成功获取的数据及获取时间
+     * 新鲜期由OjPlatformDataCache按平台判断，这里只保留足够久以便上游失败时复用
+     */
+    @Bean("ojPlatformDataCache")
+    public Cache<PlatformUserKey, OjPlatformDataCache.Entry> ojPlatformDataCache() {
+        return monitor(newBuilder("ojPlatformDataCache", CacheWeighers.OJ_PLATFORM_DATA,
+                maxSize * 4, // 每个用户最多四个平台
+                Duration.ofDays(activeUserDays), null)
+                .build(), "ojPlatformDataCache", CacheWeighers.OJ_PLATFORM_DATA);
     }
 
     /**
-     * key: oj_update_lock:123
+     * key: userId
      * value: 线程的名称
      * 表示当前用户oj锁被哪一个线程占据
      */
     @Bean
-    public Cache<String, String> updateLockCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterWrite(asyncUpdateTimeoutSeconds, TimeUnit.MINUTES) // 防止锁泄露
-                .build();
+    public Cache<Long, String> updateLockCache() {
+        return monitor(newBuilder("updateLockCache", CacheWeighers.UPDATE_LOCK, maxSize,
+                Duration.ofMinutes(asyncUpdateTimeoutSeconds), null) // 防止锁泄露
+                .build(), "updateLockCache", CacheWeighers.UPDATE_LOCK);
     }
 
     /**
      * 验证码缓存管理器：key=邮箱（String），value=验证码（Integer）
-     * 有效期10分钟，自动过期（无需手动清理）
+     * 有效期30分钟，自动过期（无需手动清理）
      */
     @Bean("verifyCodeCacheManager")
     public CacheManager verifyCodeCacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        // 配置缓存规则：30分钟过期，初始容量100（适配小访问量）
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(30, TimeUnit.MINUTES) // 写入后10分钟过期
-                .initialCapacity(100)
-                .maximumSize(maxSize) // 最大缓存1万条（避免内存溢出）
-        );
+        // 默认规则：30分钟过期，初始容量100（适配小访问量）
+        cacheManager.setCaffeine(newBuilder("verifyCodeCache", CacheWeighers.VERIFY_CODE, maxSize, 100,
+                Duration.ofMinutes(30), null));
+        // 启动时创建缓存，Actuator才能在启动阶段为其注册指标
+        cacheManager.setCacheNames(List.of("verifyCodeCache"));
+        CaffeineCache verifyCodeCache = (CaffeineCache) cacheManager.getCache("verifyCodeCache");
+        if (verifyCodeCache != null) {
+            cacheMemoryEndpoint.register("verifyCodeCache", verifyCodeCache.getNativeCache(), CacheWeighers.VERIFY_CODE);
+        }
         return cacheManager;
     }
 
-    // 新增：排名专用缓存（直接返回Cache对象，避免类型冲突）
+    /**
+     * key: PlatformUsernameKey(平台, 平台用户名)
+     * value: 上次响应的ETag/Last-Modified/内容摘要
+     * 用于向OJHunt发送条件请求，判断用户数据是否有变化
+     */
+    @Bean("ojValidatorCache")
+    public Cache<PlatformUsernameKey, OjHuntValidator> ojValidatorCache() {
+        return monitor(newBuilder("ojValidatorCache", CacheWeighers.OJ_VALIDATOR,
+                maxSize * 4, // 每个用户最多四个平台
+                Duration.ofDays(activeUserDays), null)
+                .build(), "ojValidatorCache", CacheWeighers.OJ_VALIDATOR);
+    }
+
+    // 新增：排名专用缓存（直接返回Cache对象，避免类型冲突），key为PlatformUserKey(平台序号, userId)
+    // 条目有效性由排名版本决定，这里只淘汰长时间未访问的条目
     @Bean("platformRankingCache")
-    public Cache<String, UserPlatformRankingVo> platformRankingCache() {
-        return Caffeine.newBuilder()
-                .maximumSize(maxSize)
-                .expireAfterWrite(2, TimeUnit.MINUTES)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .recordStats()
-                .build();
+    public Cache<PlatformUserKey, CaffeineRankingCache.Entry> platformRankingCache() {
+        return monitor(newBuilder("platformRankingCache", CacheWeighers.PLATFORM_RANKING, maxSize,
+                null, Duration.ofMinutes(30))
+                .build(), "platformRankingCache", CacheWeighers.PLATFORM_RANKING);
+    }
+
+    /**
+     * 按ita.oj.cache.specs中该缓存的配置创建builder，未配置的项使用传入的默认值
+     * 配置了max-weight-bytes时按weigher估算的字节数淘汰，否则按条目数淘汰
+     */
+    private <K, V> Caffeine<K, V> newBuilder(String cacheName, Weigher<? super K, ? super V> weigher,
+                                             long defaultMaxSize,
+                                             Duration defaultExpireAfterWrite, Duration defaultExpireAfterAccess) {
+        return newBuilder(cacheName, weigher, defaultMaxSize, null, defaultExpireAfterWrite, defaultExpireAfterAccess);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Caffeine<K, V> newBuilder(String cacheName, Weigher<? super K, ? super V> weigher,
+                                             long defaultMaxSize, Integer defaultInitialCapacity,
+                                             Duration defaultExpireAfterWrite, Duration defaultExpireAfterAccess) {
+        OjCacheProperties.CacheSpec spec = cacheProperties.getSpec(cacheName);
+        Caffeine<K, V> builder = (Caffeine<K, V>) Caffeine.newBuilder();
+        if (spec.getMaxWeightBytes() != null) {
+            builder.maximumWeight(spec.getMaxWeightBytes()).weigher(weigher);
+        } else {
+            builder.maximumSize(spec.getMaxSize() != null ? spec.getMaxSize() : defaultMaxSize);
+        }
+        Integer initialCapacity = spec.getInitialCapacity() != null ? spec.getInitialCapacity() : defaultInitialCapacity;
+        if (initialCapacity != null) {
+            builder.initialCapacity(initialCapacity);
+        }
+        Duration expireAfterWrite = spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaultExpireAfterWrite;
+        if (expireAfterWrite != null) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        Duration expireAfterAccess = spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : defaultExpireAfterAccess;
+        if (expireAfterAccess != null) {
+            builder.expireAfterAccess(expireAfterAccess);
+        }
+        if (spec.isRecordStats()) {
+            builder.recordStats(); // 开启统计
+        }
+        return builder.removalListener(removalCounter(cacheName));
+    }
+
+    /**
+     * 注册命中/未命中、加载次数与耗时、淘汰次数和估算大小等指标，并登记到缓存内存端点
+     */
+    private <K, V> Cache<K, V> monitor(Cache<K, V> cache, String cacheName, Weigher<? super K, ? super V> weigher) {
+        cacheMemoryEndpoint.register(cacheName, cache, weigher);
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+    }
+
+    /**
+     * 按移除原因（SIZE/EXPIRED/EXPLICIT/REPLACED/COLLECTED）统计移除次数，指标名 cache.removals
+     * 每个(缓存, 原因)的计数器在创建缓存时注册一次，移除时直接累加
+     */
+    private <K, V> RemovalListener<K, V> removalCounter(String cacheName) {
+        Map<RemovalCause, Counter> counters = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            counters.put(cause, Counter.builder("cache.removals")
+                    .description("按原因统计的缓存移除次数")
+                    .tag("cache", cacheName)
+                    .tag("cause", cause.name())
+                    .register(meterRegistry));
+        }
+        return (key, value, cause) -> {
+            log.debug("缓存被移除: cache={}, key={}, cause={}", cacheName, key, cause);
+            counters.get(cause).increment();
+        };
     }
 
 }
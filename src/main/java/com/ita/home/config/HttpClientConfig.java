@@ -2,30 +2,37 @@ package com.ita.home.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 
 /**
  * HTTP客户端配置类
- * 配置RestTemplate用于调用外部API
+ * 配置调用OJHunt等外部API使用的JDK HttpClient
  */
 @Configuration
 public class HttpClientConfig {
 
     /**
-     * 配置RestTemplate Bean
-     * 用于调用OJHunt API等外部服务
+     * OJHunt专用的JDK HttpClient
+     * 自带连接池并复用keep-alive连接，支持HTTP/2时同一连接多路复用，避免每次请求重新握手TLS
      */
-    @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        
-        // 设置连接超时时间（毫秒）
-        factory.setConnectTimeout(10000);
-        
-        // 设置读取超时时间（毫秒）
-        factory.setReadTimeout(30000);
-        
-        return new RestTemplate(factory);
+    @Bean("ojHuntHttpClient")
+    public HttpClient ojHuntHttpClient(OjHuntClientProperties properties) {
+        // JDK HttpClient的连接池参数只能通过系统属性设置，且需在首次创建客户端前生效
+        setPropertyIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(properties.getKeepAliveSeconds()));
+        setPropertyIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(properties.getMaxConnectionsPerRoute()));
+
+        return HttpClient.newBuilder()
+                .version(properties.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    private static void setPropertyIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.ita.home.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OJ数据缓存配置
+ * 对应配置前缀 ita.oj.cache
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ita.oj.cache")
+public class OjCacheProperties {
+    /**
+     * 默认缓存有效期（小时），平台未单独配置新鲜期时使用
+     */
+    private int expireHours = 6;
+
+    /**
+     * 汇总缓存的硬过期时间（小时），软过期（最短的平台新鲜期）到硬过期之间返回旧数据并后台刷新
+     */
+    private int hardExpireHours = 24;
+
+    /**
+     * 按平台配置的数据新鲜期（分钟），key为平台ID
+     */
+    private Map<String, Long> platformTtlMinutes = new HashMap<>();
+
+    /**
+     * 按缓存名配置的容量、过期和统计规则，key为缓存名（如oj-data、platform-ranking），未配置的缓存使用代码中的默认值
+     */
+    private Map<String, CacheSpec> specs = new HashMap<>();
+
+    /**
+     * 获取缓存的配置，忽略大小写和连字符，cacheName可以是ojDataCache或oj-data-cache形式；未配置时返回空配置
+     */
+    public CacheSpec getSpec(String cacheName) {
+        String normalized = normalize(cacheName);
+        for (Map.Entry<String, CacheSpec> entry : specs.entrySet()) {
+            String key = normalize(entry.getKey());
+            if (key.equals(normalized) || (key + "cache").equals(normalized)) {
+                return entry.getValue();
+            }
+        }
+        return new CacheSpec();
+    }
+
+    private static String normalize(String name) {
+        return name.replace("-", "").toLowerCase();
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    @Data
+    public static class CacheSpec {
+        /**
+         * 估算保留内存上限（字节），配置后按该缓存的weigher以字节淘汰，max-size不再生效
+         */
+        private Long maxWeightBytes;
+
+        /**
+         * 最大条目数，未配置max-weight-bytes时生效
+         */
+        private Long maxSize;
+
+        /**
+         * 初始容量
+         */
+        private Integer initialCapacity;
+
+        /**
+         * 写入后过期时间
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * 最后访问后过期时间
+         */
+        private Duration expireAfterAccess;
+
+        /**
+         * 是否记录命中率等统计
+         */
+        private boolean recordStats = true;
+    }
+
+    /**
+     * 获取指定平台数据的新鲜期
+     */
+    public Duration getPlatformTtl(String platformId) {
+        Long minutes = platformTtlMinutes.get(platformId);
+        return minutes != null ? Duration.ofMinutes(minutes) : Duration.ofHours(expireHours);
+    }
+
+    /**
+     * 获取所有平台中最短的新鲜期，汇总缓存不能比任何一个平台活得更久
+     */
+    public Duration getMinPlatformTtl() {
+        Duration min = Duration.ofHours(expireHours);
+        for (Long minutes : platformTtlMinutes.values()) {
+            if (minutes != null && Duration.ofMinutes(minutes).compareTo(min) < 0) {
+                min = Duration.ofMinutes(minutes);
+            }
+        }
+        return min;
+    }
+}
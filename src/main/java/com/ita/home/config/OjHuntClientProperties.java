@@ -0,0 +1,252 @@
+package com.ita.home.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OJHunt上游客户端配置
+ * 对应配置前缀 ita.oj.client
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ita.oj.client")
+public class OjHuntClientProperties {
+    /**
+     * 是否优先使用HTTP/2（服务端不支持时自动降级为HTTP/1.1）
+     */
+    private boolean http2Enabled = true;
+
+    /**
+     * 连接超时（毫秒）
+     */
+    private int connectTimeoutMs = 5000;
+
+    /**
+     * 默认读取超时（毫秒），平台未单独配置时使用
+     */
+    private int readTimeoutMs = 10000;
+
+    /**
+     * 按平台覆盖的读取超时（毫秒），key为平台ID
+     */
+    private Map<String, Integer> platformReadTimeoutMs = new HashMap<>();
+
+    /**
+     * 同一路由（目标主机）允许的最大并发连接数
+     */
+    private int maxConnectionsPerRoute = 16;
+
+    /**
+     * 空闲连接保活时间（秒）
+     */
+    private int keepAliveSeconds = 300;
+
+    /**
+     * 是否请求gzip压缩响应
+     */
+    private boolean gzipEnabled = true;
+
+    /**
+     * 是否解析solvedList（默认跳过，只读取解题数和提交数）
+     */
+    private boolean parseSolvedList = false;
+
+    /**
+     * 每个平台默认允许的最大并发请求数
+     */
+    private int maxConcurrencyPerPlatform = 8;
+
+    /**
+     * 按平台覆盖的最大并发请求数，key为平台ID
+     */
+    private Map<String, Integer> platformMaxConcurrency = new HashMap<>();
+
+    /**
+     * 并发已满时等待许可的最长时间（毫秒），超时则直接拒绝本次调用
+     */
+    private long bulkheadMaxWaitMs = 500;
+
+    /**
+     * 熔断器配置
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * 限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 对冲请求配置
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 获取指定平台的读取超时
+     */
+    public int getReadTimeoutMs(String platformId) {
+        return platformReadTimeoutMs.getOrDefault(platformId, readTimeoutMs);
+    }
+
+    /**
+     * 获取指定平台的最大并发请求数
+     */
+    public int getMaxConcurrency(String platformId) {
+        return platformMaxConcurrency.getOrDefault(platformId, maxConcurrencyPerPlatform);
+    }
+
+    /**
+     * 平台熔断器配置
+     */
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * 是否启用熔断
+         */
+        private boolean enabled = true;
+
+        /**
+         * 滑动窗口大小（最近N次调用）
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * 窗口内至少有多少次调用才开始计算失败率
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * 失败率阈值（百分比），达到后熔断
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 慢调用判定时长（毫秒）
+         */
+        private long slowCallDurationMs = 5000;
+
+        /**
+         * 慢调用率阈值（百分比），达到后熔断
+         */
+        private int slowCallRateThreshold = 80;
+
+        /**
+         * 熔断打开后等待多久进入半开状态（毫秒）
+         */
+        private long waitDurationInOpenMs = 60000;
+
+        /**
+         * 半开状态允许的试探调用次数
+         */
+        private int permittedCallsInHalfOpen = 3;
+    }
+
+    /**
+     * 平台令牌桶限流配置
+     */
+    @Data
+    public static class RateLimit {
+        /**
+         * 是否启用限流
+         */
+        private boolean enabled = true;
+
+        /**
+         * 默认每秒生成的令牌数
+         */
+        private double ratePerSecond = 5;
+
+        /**
+         * 默认桶容量（允许的突发请求数）
+         */
+        private double burst = 10;
+
+        /**
+         * 按平台覆盖的每秒令牌数，key为平台ID
+         */
+        private Map<String, Double> platformRatePerSecond = new HashMap<>();
+
+        /**
+         * 按平台覆盖的桶容量，key为平台ID
+         */
+        private Map<String, Double> platformBurst = new HashMap<>();
+
+        /**
+         * 为交互请求预留的令牌比例（占桶容量）
+         */
+        private double interactiveReservedRatio = 0.3;
+
+        /**
+         * 交互请求等待令牌的最长时间（毫秒）
+         */
+        private long interactiveMaxWaitMs = 1000;
+
+        /**
+         * 后台请求等待令牌的最长时间（毫秒）
+         */
+        private long backgroundMaxWaitMs = 60000;
+
+        /**
+         * 速率为0或负数时令牌永远不会补充，绑定配置时直接拒绝
+         */
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = requirePositiveRate("rate-per-second", ratePerSecond);
+        }
+
+        public void setPlatformRatePerSecond(Map<String, Double> platformRatePerSecond) {
+            platformRatePerSecond.forEach((platformId, rate) ->
+                    requirePositiveRate("platform-rate-per-second." + platformId, rate));
+            this.platformRatePerSecond = platformRatePerSecond;
+        }
+
+        public double getRatePerSecond(String platformId) {
+            return platformRatePerSecond.getOrDefault(platformId, ratePerSecond);
+        }
+
+        public double getBurst(String platformId) {
+            return platformBurst.getOrDefault(platformId, burst);
+        }
+
+        private static double requirePositiveRate(String name, Double rate) {
+            if (rate == null || !(rate > 0)) {
+                throw new IllegalArgumentException("ita.oj.client.rate-limit." + name + "必须大于0: " + rate);
+            }
+            return rate;
+        }
+    }
+
+    /**
+     * 对冲请求配置
+     */
+    @Data
+    public static class Hedge {
+        /**
+         * 是否启用对冲请求
+         */
+        private boolean enabled = false;
+
+        /**
+         * 触发对冲的延迟分位数（0-100）
+         */
+        private double percentile = 95;
+
+        /**
+         * 统计延迟的滚动窗口大小
+         */
+        private int windowSize = 100;
+
+        /**
+         * 样本数少于该值时不对冲
+         */
+        private int minSamples = 20;
+
+        /**
+         * 对冲延迟下限（毫秒），避免分位数过小时频繁对冲
+         */
+        private long minDelayMs = 200;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.*;
 
 /**
@@ -35,6 +36,10 @@ public class ThreadPoolConfig {
     @Value("${thread-pool.oj-api.keep-alive-seconds}")
     private int keepAliveSeconds;
 
+    /** oj-api线程池执行模式：platform-平台线程池，virtual-虚拟线程（需JDK 21+） */
+    @Value("${thread-pool.oj-api.mode:platform}")
+    private String ojApiMode;
+
     /**
      * 配置邮箱发送线程池
      * 核心线程数：2（根据邮件发送峰值调整，不宜过多，避免触发邮箱服务商限流）
@@ -69,9 +74,17 @@ public class ThreadPoolConfig {
     /**
      * 用于并行调用OJ平台API的线程池
      * 也负责处理缓存和数据库更新的任务
+     * mode=virtual时每个任务使用一个虚拟线程，对上游的并发由PlatformConcurrencyLimiter限制
      */
     @Bean(name = "ojApiExecutorService") // 指定Bean名称，便于注入时区分
     public ExecutorService ojApiExecutorService() {
+        if ("virtual".equalsIgnoreCase(ojApiMode)) {
+            ExecutorService virtualExecutor = newVirtualThreadExecutor();
+            if (virtualExecutor != null) {
+                log.info("ojApiExecutorService使用虚拟线程模式");
+                return virtualExecutor;
+            }
+        }
         return new ThreadPoolExecutor(
                 corePoolSize,
                 maxPoolSize,
@@ -92,6 +105,38 @@ public class ThreadPoolConfig {
         );
     }
 
+    /**
+     * 创建虚拟线程执行器
+     * 项目以JDK 17编译，通过反射调用JDK 21的Executors.newVirtualThreadPerTaskExecutor
+     * @return 当前JDK不支持虚拟线程时返回null
+     */
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("当前JDK({})不支持虚拟线程，ojApiExecutorService回退为平台线程池",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    /**
+     * ojDataCache加载和后台刷新使用的线程池
+     * 加载任务会等待ojApiExecutorService中的平台请求，两者分开避免互相占满导致死锁
+     */
+    @Bean("ojCacheRefreshExecutor")
+    public Executor ojCacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("oj-cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     /**
      * 用于异步处理排名的线程池
      */
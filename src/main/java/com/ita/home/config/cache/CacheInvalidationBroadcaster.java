@@ -0,0 +1,23 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.model.event.CacheInvalidationEvent;
+
+import java.util.List;
+
+/**
+ * 缓存失效广播
+ * publish会先淘汰本节点的受影响key，再通知其他节点；实现通过ita.oj.cache.invalidation.mode选择：
+ * loopback（默认，仅本JVM，单实例部署和测试使用）或jdbc（通过cache_invalidation_log表轮询，无需额外中间件）
+ */
+public interface CacheInvalidationBroadcaster {
+
+    /**
+     * 发布失效事件
+     */
+    void publish(CacheInvalidationEvent event);
+
+    /**
+     * 批量发布失效事件，用于一次修改影响大量用户的场景（如排名平移），广播时合并写入
+     */
+    void publishAll(List<CacheInvalidationEvent> events);
+}
@@ -0,0 +1,43 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.ita.home.model.event.CacheInvalidationEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 在本节点执行失效事件：只淘汰事件涉及的key，下次访问时按正常流程重新加载
+ */
+@Component
+@Slf4j
+public class CacheInvalidationHandler {
+
+    private final AsyncLoadingCache<Long, PackedOjUserData> ojDataCache;
+    private final OjPlatformDataCache ojPlatformDataCache;
+    private final CaffeineRankingCache caffeineRankingCache;
+
+    public CacheInvalidationHandler(@Qualifier("ojDataCache") AsyncLoadingCache<Long, PackedOjUserData> ojDataCache,
+                                    OjPlatformDataCache ojPlatformDataCache,
+                                    CaffeineRankingCache caffeineRankingCache) {
+        this.ojDataCache = ojDataCache;
+        this.ojPlatformDataCache = ojPlatformDataCache;
+        this.caffeineRankingCache = caffeineRankingCache;
+    }
+
+    public void apply(CacheInvalidationEvent event) {
+        if (event.getTarget() == null || event.getUserId() == null) {
+            log.warn("忽略无效的缓存失效事件: {}", event);
+            return;
+        }
+        switch (event.getTarget()) {
+            case OJ_DATA -> {
+                ojDataCache.synchronous().invalidate(event.getUserId());
+                ojPlatformDataCache.invalidateUser(event.getUserId());
+            }
+            case PLATFORM_RANKING -> caffeineRankingCache.invalidate(event.getPlatformId(), event.getUserId());
+        }
+        log.debug("缓存失效: target={}, userId={}, platform={}",
+                event.getTarget(), event.getUserId(), event.getPlatformId());
+    }
+}
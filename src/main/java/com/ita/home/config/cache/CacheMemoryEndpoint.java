@@ -0,0 +1,69 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各缓存估算的保留内存，经 /actuator/cachememory 查看
+ * 按字节淘汰的缓存直接读取Caffeine维护的总权重；按条目数淘汰的缓存遍历条目用同一个weigher累加
+ */
+@Component
+@Endpoint(id = "cachememory")
+public class CacheMemoryEndpoint {
+
+    private final Map<String, Registration<?, ?>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 由CaffeineConfig在创建缓存时登记
+     */
+    public <K, V> void register(String cacheName, Cache<K, V> cache, Weigher<? super K, ? super V> weigher) {
+        caches.put(cacheName, new Registration<>(cache, weigher));
+    }
+
+    @ReadOperation
+    public Map<String, CacheMemory> cacheMemory() {
+        Map<String, CacheMemory> result = new LinkedHashMap<>();
+        long totalBytes = 0;
+        for (Map.Entry<String, Registration<?, ?>> entry : caches.entrySet()) {
+            CacheMemory memory = entry.getValue().measure();
+            totalBytes += memory.estimatedBytes();
+            result.put(entry.getKey(), memory);
+        }
+        result.put("total", new CacheMemory(
+                result.values().stream().mapToLong(CacheMemory::entries).sum(), totalBytes, null, null));
+        return result;
+    }
+
+    /**
+     * @param maxWeightBytes 按字节淘汰时的上限，否则为null
+     * @param maxSize 按条目数淘汰时的上限，否则为null
+     */
+    public record CacheMemory(long entries, long estimatedBytes, Long maxWeightBytes, Long maxSize) {
+    }
+
+    private record Registration<K, V>(Cache<K, V> cache, Weigher<? super K, ? super V> weigher) {
+
+        CacheMemory measure() {
+            Optional<Policy.Eviction<K, V>> eviction = cache.policy().eviction();
+            long entries = cache.estimatedSize();
+            if (eviction.isPresent() && eviction.get().isWeighted()) {
+                long weightedSize = eviction.get().weightedSize().orElse(0);
+                return new CacheMemory(entries, weightedSize, eviction.get().getMaximum(), null);
+            }
+            long bytes = 0;
+            for (Map.Entry<K, V> entry : cache.asMap().entrySet()) {
+                bytes += weigher.weigh(entry.getKey(), entry.getValue());
+            }
+            return new CacheMemory(entries, bytes, null, eviction.map(Policy.Eviction::getMaximum).orElse(null));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ita.home.config.OjCacheProperties;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.vo.UserPlatformRankingVo;
+import com.ita.home.service.impl.RankingEpochService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 缓存快照
+ * 正常关闭时把ojDataCache和platformRankingCache写入二进制快照文件，启动时通过内存映射读回，
+ * 滚动重启后无需访问MySQL即可得到热缓存。先于CacheWarmUpRunner执行，预热只补充快照中没有的数据
+ * <p>
+ * 文件格式（大端）：
+ * <pre>
+ * int magic | int version | long createdAtMillis
+ * int ojDataCount   | ojData条目...
+ * int rankingCount  | ranking条目...
+ * long crc32（以上全部字节）
+ * </pre>
+ * 魔数、版本、校验和任一不符时整个文件被忽略；先完整解析全部条目再放入缓存，任一条目格式错误时同样整体忽略。
+ * 恢复的ojData条目保留写入快照前已有的年龄（见RestoredAgeRegistry），不会重新获得完整的软过期时间
+ */
+@Component
+@Order(0)
+@Slf4j
+public class CacheSnapshotStore implements ApplicationRunner {
+
+    private static final int MAGIC = 0x49544143; // "ITAC"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int TRAILER_BYTES = 8;
+    /** 可为空的int字段用该值表示null */
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private final AsyncLoadingCache<Long, PackedOjUserData> ojDataCache;
+    private final Cache<PlatformUserKey, CaffeineRankingCache.Entry> platformRankingCache;
+    private final OjCacheProperties cacheProperties;
+    private final RankingEpochService rankingEpochService;
+    private final RestoredAgeRegistry restoredAgeRegistry;
+
+    @Value("${ita.oj.cache.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ita.oj.cache.snapshot.path:cache/cache-snapshot.bin}")
+    private String path;
+
+    public CacheSnapshotStore(@Qualifier("ojDataCache") AsyncLoadingCache<Long, PackedOjUserData> ojDataCache,
+                              @Qualifier("platformRankingCache") Cache<PlatformUserKey, CaffeineRankingCache.Entry> platformRankingCache,
+                              OjCacheProperties cacheProperties,
+                              RankingEpochService rankingEpochService,
+                              RestoredAgeRegistry restoredAgeRegistry) {
+        this.ojDataCache = ojDataCache;
+        this.platformRankingCache = platformRankingCache;
+        this.cacheProperties = cacheProperties;
+        this.rankingEpochService = rankingEpochService;
+        this.restoredAgeRegistry = restoredAgeRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            save();
+        }
+    }
+
+    /**
+     * 写入快照：先写临时文件，再原子替换旧快照，避免关闭过程中被中断留下半个文件
+     */
+    public void save() {
+        long startTime = System.currentTimeMillis();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(startTime);
+            int ojDataCount = writeOjData(out, startTime);
+            int rankingCount = writeRankings(out);
+            out.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            out.flush();
+
+            Path target = Paths.get(path);
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "cache-snapshot", ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("缓存快照已写入{}: ojData={}, ranking={}, {}字节, 耗时{}ms", target, ojDataCount,
+                    rankingCount, bytes.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("写入缓存快照失败", e);
+        }
+    }
+
+    /**
+     * 读取快照：文件不存在、损坏或版本不符时忽略
+     */
+    public void load() {
+        Path file = Paths.get(path);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                log.warn("缓存快照大小异常({}字节)，忽略", size);
+                return;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int payloadBytes = (int) size - TRAILER_BYTES;
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("缓存快照格式或版本不符，忽略");
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, payloadBytes));
+            if (crc.getValue() != buffer.getLong(payloadBytes)) {
+                log.warn("缓存快照校验和不符，忽略");
+                return;
+            }
+
+            buffer.getLong(); // createdAtMillis
+            long now = System.currentTimeMillis();
+            // 先解析全部条目，任一条目格式错误时抛出异常，不会只恢复一部分
+            List<RestoredOjData> ojData = readOjData(buffer, now);
+            Map<PlatformUserKey, CaffeineRankingCache.Entry> rankings = readRankings(buffer);
+
+            Map<Long, Long> ageNanos = new HashMap<>(ojData.size() * 2);
+            for (RestoredOjData entry : ojData) {
+                ojDataCache.synchronous().put(entry.userId(), entry.data());
+                ageNanos.put(entry.userId(), TimeUnit.MILLISECONDS.toNanos(now - entry.writeTime()));
+            }
+            restoredAgeRegistry.register(ageNanos);
+            platformRankingCache.putAll(rankings);
+            log.info("缓存快照已加载: ojData={}, ranking={}, 耗时{}ms",
+                    ojData.size(), rankings.size(), System.currentTimeMillis() - startTime);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("读取缓存快照失败，忽略", e);
+        }
+    }
+
+    /**
+     * ojData条目：long userId | long writeTimeMillis | long fetchTimeMillis | int totalAc | int totalSubmit
+     * | byte presentMask | 每个存在的平台（按枚举序号）int solved | int submitted
+     */
+    private int writeOjData(DataOutputStream out, long now) throws IOException {
+        List<Map.Entry<Long, PackedOjUserData>> snapshot =
+                new ArrayList<>(ojDataCache.synchronous().asMap().entrySet());
+        out.writeInt(snapshot.size());
+        for (Map.Entry<Long, PackedOjUserData> entry : snapshot) {
+            PackedOjUserData data = entry.getValue();
+            long age = ojDataCache.synchronous().policy().refreshAfterWrite()
+                    .map(refresh -> refresh.ageOf(entry.getKey(), TimeUnit.MILLISECONDS).orElse(0))
+                    .orElse(0L);
+            out.writeLong(entry.getKey());
+            out.writeLong(now - age);
+            out.writeLong(data.getFetchTimeMillis());
+            out.writeInt(data.getTotalAc());
+            out.writeInt(data.getTotalSubmit());
+            out.writeByte(data.getPresentMask());
+            for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+                if (data.hasPlatform(platform)) {
+                    out.writeInt(data.getSolved(platform));
+                    out.writeInt(data.getSubmitted(platform));
+                }
+            }
+        }
+        return snapshot.size();
+    }
+
+    /**
+     * 只恢复仍在软过期时间内的条目，超过软过期的旧数据留给正常加载流程
+     */
+    private List<RestoredOjData> readOjData(ByteBuffer buffer, long now) {
+        OjPlatformEnum[] platforms = OjPlatformEnum.values();
+        long softTtlMillis = cacheProperties.getMinPlatformTtl().toMillis();
+        int count = buffer.getInt();
+        List<RestoredOjData> restored = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long userId = buffer.getLong();
+            long writeTime = buffer.getLong();
+            long fetchTime = buffer.getLong();
+            int totalAc = buffer.getInt();
+            int totalSubmit = buffer.getInt();
+            int presentMask = buffer.get() & 0xFF;
+            if (presentMask >>> platforms.length != 0) {
+                throw new IllegalArgumentException("快照中存在未知平台: mask=" + presentMask);
+            }
+            int[] counts = new int[platforms.length * 2];
+            for (OjPlatformEnum platform : platforms) {
+                if ((presentMask & (1 << platform.ordinal())) != 0) {
+                    counts[2 * platform.ordinal()] = buffer.getInt();
+                    counts[2 * platform.ordinal() + 1] = buffer.getInt();
+                }
+            }
+            if (now - writeTime >= softTtlMillis) {
+                continue;
+            }
+            restored.add(new RestoredOjData(userId, Math.min(writeTime, now),
+                    new PackedOjUserData(counts, presentMask, totalAc, totalSubmit, fetchTime)));
+        }
+        return restored;
+    }
+
+    /**
+     * ranking条目：byte platformOrdinal | long userId | long epochId | int ranking | int acCount
+     * | int submitCount | int totalUsers | double rankingPercentage | string username
+     */
+    private int writeRankings(DataOutputStream out) throws IOException {
+        List<Map.Entry<PlatformUserKey, CaffeineRankingCache.Entry>> snapshot =
+                new ArrayList<>(platformRankingCache.asMap().entrySet());
+        out.writeInt(snapshot.size());
+        for (Map.Entry<PlatformUserKey, CaffeineRankingCache.Entry> entry : snapshot) {
+            UserPlatformRankingVo vo = entry.getValue().getRanking();
+            out.writeByte(entry.getKey().platformOrdinal());
+            out.writeLong(entry.getKey().userId());
+            out.writeLong(entry.getValue().getEpochId());
+            writeNullableInt(out, vo.getRanking());
+            writeNullableInt(out, vo.getAcCount());
+            writeNullableInt(out, vo.getSubmitCount());
+            writeNullableInt(out, vo.getTotalUsers());
+            out.writeDouble(vo.getRankingPercentage() == null ? Double.NaN : vo.getRankingPercentage());
+            writeString(out, vo.getUsername());
+        }
+        return snapshot.size();
+    }
+
+    /**
+     * 只恢复属于平台当前排名版本的条目
+     */
+    private Map<PlatformUserKey, CaffeineRankingCache.Entry> readRankings(ByteBuffer buffer) {
+        OjPlatformEnum[] platforms = OjPlatformEnum.values();
+        int count = buffer.getInt();
+        Map<PlatformUserKey, CaffeineRankingCache.Entry> restored = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int platformOrdinal = buffer.get() & 0xFF;
+            long userId = buffer.getLong();
+            long epochId = buffer.getLong();
+            Integer ranking = readNullableInt(buffer);
+            Integer acCount = readNullableInt(buffer);
+            Integer submitCount = readNullableInt(buffer);
+            Integer totalUsers = readNullableInt(buffer);
+            double percentage = buffer.getDouble();
+            String username = readString(buffer);
+
+            if (platformOrdinal >= platforms.length) {
+                continue;
+            }
+            OjPlatformEnum platform = platforms[platformOrdinal];
+            if (epochId != rankingEpochService.current(platform).getEpochId()) {
+                continue;
+            }
+            UserPlatformRankingVo vo = UserPlatformRankingVo.builder()
+                    .platformId(platform.getPlatformId())
+                    .platformName(platform.getPlatformName())
+                    .ranking(ranking)
+                    .acCount(acCount)
+                    .submitCount(submitCount)
+                    .totalUsers(totalUsers)
+                    .rankingPercentage(Double.isNaN(percentage) ? null : percentage)
+                    .username(username)
+                    .build();
+            restored.put(new PlatformUserKey(platformOrdinal, userId), new CaffeineRankingCache.Entry(vo, epochId));
+        }
+        return restored;
+    }
+
+    /**
+     * 解析出的ojData条目，writeTime为该条目原先写入缓存的时间
+     */
+    private record RestoredOjData(long userId, long writeTime, PackedOjUserData data) {
+    }
+
+    private static void writeNullableInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeInt(value == null ? NULL_INT : value);
+    }
+
+    private static Integer readNullableInt(ByteBuffer buffer) {
+        int value = buffer.getInt();
+        return value == NULL_INT ? null : value;
+    }
+
+    /**
+     * 字符串：int字节数（-1表示null） | UTF-8字节
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("字符串长度超出快照范围: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
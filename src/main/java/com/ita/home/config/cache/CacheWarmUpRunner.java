@@ -0,0 +1,120 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.mapper.UserOjMapper;
+import com.ita.home.mapper.UserPlatformRankingMapper;
+import com.ita.home.service.UserOjService;
+import com.ita.home.service.impl.HybridRankingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动时预热缓存
+ * 流式读取近期活跃用户的user_oj和user_platform_ranking，把仍然有效的数据放入ojDataCache和platformRankingCache。
+ * ApplicationRunner在应用就绪（ReadinessState.ACCEPTING_TRAFFIC）之前执行，预热完成或超出时间预算后才会对外接收流量。
+ * 在CacheSnapshotStore恢复快照之后执行，只补充快照中没有的条目
+ */
+@Component
+@Order(1)
+@Slf4j
+public class CacheWarmUpRunner implements ApplicationRunner {
+
+    private final UserOjMapper userOjMapper;
+    private final UserPlatformRankingMapper rankingMapper;
+    private final UserOjService userOjService;
+    private final HybridRankingService hybridRankingService;
+
+    @Value("${ita.oj.warm-up.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ita.oj.warm-up.time-budget-seconds:30}")
+    private long timeBudgetSeconds;
+
+    @Value("${ita.oj.cache.active-user-days}")
+    private Integer activeUserDays;
+
+    @Value("${ita.oj.cache.max-size}")
+    private Long maxSize;
+
+    /** 超出时间预算后置为true，正在读取的结果集会尽快停止 */
+    private volatile boolean cancelled;
+
+    public CacheWarmUpRunner(UserOjMapper userOjMapper,
+                             UserPlatformRankingMapper rankingMapper,
+                             UserOjService userOjService,
+                             HybridRankingService hybridRankingService) {
+        this.userOjMapper = userOjMapper;
+        this.rankingMapper = rankingMapper;
+        this.userOjService = userOjService;
+        this.hybridRankingService = hybridRankingService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        LocalDateTime activeTime = LocalDateTime.now().minusDays(activeUserDays);
+        AtomicInteger ojDataCount = new AtomicInteger();
+        AtomicInteger rankingCount = new AtomicInteger();
+
+        // 两张表各用一个线程并行读取，每个线程占用一个数据库连接
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "cache-warm-up"));
+        try {
+            CompletableFuture<Void> ojData = CompletableFuture.runAsync(() ->
+                    userOjMapper.streamActiveUserOj(activeTime, context -> {
+                        if (cancelled || ojDataCount.get() >= maxSize) {
+                            context.stop();
+                            return;
+                        }
+                        if (userOjService.warmUpOjUserData(context.getResultObject())) {
+                            ojDataCount.incrementAndGet();
+                        }
+                    }), executor);
+            CompletableFuture<Void> rankings = CompletableFuture.runAsync(() ->
+                    rankingMapper.streamActiveUserRankings(activeTime, context -> {
+                        if (cancelled || rankingCount.get() >= maxSize) {
+                            context.stop();
+                            return;
+                        }
+                        if (hybridRankingService.warmUpRanking(context.getResultObject())) {
+                            rankingCount.incrementAndGet();
+                        }
+                    }), executor);
+
+            CompletableFuture.allOf(ojData, rankings).get(timeBudgetSeconds, TimeUnit.SECONDS);
+            log.info("缓存预热完成: ojData={}, ranking={}, 耗时{}ms",
+                    ojDataCount.get(), rankingCount.get(), System.currentTimeMillis() - startTime);
+        } catch (TimeoutException e) {
+            cancelled = true;
+            log.warn("缓存预热超出{}秒预算，提前结束: ojData={}, ranking={}",
+                    timeBudgetSeconds, ojDataCount.get(), rankingCount.get());
+        } catch (InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 预热失败不影响启动，缓存会在首次访问时加载
+            log.error("缓存预热失败", e.getCause());
+        } finally {
+            if (cancelled) {
+                // 超出预算时中断仍在读取的线程，阻塞在数据库读取上的线程也能尽快退出，释放连接
+                executor.shutdownNow();
+            } else {
+                executor.shutdown();
+            }
+        }
+    }
+}
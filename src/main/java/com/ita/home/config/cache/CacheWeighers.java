@@ -0,0 +1,91 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.ita.home.client.OjHuntValidator;
+import com.ita.home.model.dto.OjDataDto;
+import com.ita.home.model.vo.UserPlatformRankingVo;
+
+/**
+ * 各缓存条目的保留内存估算（字节），用于按字节淘汰和上报缓存占用
+ * 按64位JVM、开启压缩指针估算：对象头12字节、引用4字节、8字节对齐；
+ * 每个条目另计Caffeine节点和哈希表槽位的固定开销。只求量级准确，不追求精确到字节
+ */
+public final class CacheWeighers {
+
+    /** Caffeine节点（含访问/写入时间、队列指针）及ConcurrentHashMap槽位 */
+    private static final int ENTRY_OVERHEAD = 96;
+    private static final int OBJECT_HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int BOXED = 16;
+
+    public static final Weigher<Long, PackedOjUserData> OJ_DATA = (userId, data) ->
+            ENTRY_OVERHEAD + BOXED
+                    // PackedOjUserData：数组引用、掩码、两个总数、获取时间，外加int[8]；异步缓存还有一层CompletableFuture
+                    + align(OBJECT_HEADER + REFERENCE + 3 * 4 + 8) + align(ARRAY_HEADER + 8 * 4)
+                    + align(OBJECT_HEADER + 2 * REFERENCE);
+
+    public static final Weigher<PlatformUserKey, OjPlatformDataCache.Entry> OJ_PLATFORM_DATA = (key, entry) ->
+            ENTRY_OVERHEAD + align(OBJECT_HEADER + 4 + 8)
+                    + align(OBJECT_HEADER + REFERENCE + 8)
+                    + ojDataDto(entry.getData());
+
+    public static final Weigher<Long, String> UPDATE_LOCK = (userId, threadName) ->
+            ENTRY_OVERHEAD + BOXED + string(threadName);
+
+    public static final Weigher<PlatformUsernameKey, OjHuntValidator> OJ_VALIDATOR = (key, validator) ->
+            ENTRY_OVERHEAD + align(OBJECT_HEADER + 2 * REFERENCE) + string(key.username())
+                    + align(OBJECT_HEADER + 5 * REFERENCE) + 2 * BOXED
+                    + string(validator.getEtag()) + string(validator.getLastModified())
+                    + (validator.getContentHash() == null ? 0 : align(ARRAY_HEADER + validator.getContentHash().length));
+
+    public static final Weigher<PlatformUserKey, CaffeineRankingCache.Entry> PLATFORM_RANKING = (key, entry) ->
+            ENTRY_OVERHEAD + align(OBJECT_HEADER + 4 + 8)
+                    + align(OBJECT_HEADER + REFERENCE + 8)
+                    + rankingVo(entry.getRanking());
+
+    /** 验证码缓存：key为邮箱，value为验证码 */
+    public static final Weigher<Object, Object> VERIFY_CODE = (email, code) ->
+            ENTRY_OVERHEAD + (email instanceof String s ? string(s) : BOXED) + BOXED;
+
+    private CacheWeighers() {
+    }
+
+    private static int ojDataDto(OjDataDto dto) {
+        if (dto == null) {
+            return 0;
+        }
+        // 平台名称通常是共享的常量，不计入
+        return align(OBJECT_HEADER + 3 * REFERENCE)
+                + (dto.getSolved() == null ? 0 : BOXED)
+                + (dto.getSubmitted() == null ? 0 : BOXED);
+    }
+
+    private static int rankingVo(UserPlatformRankingVo vo) {
+        if (vo == null) {
+            return 0;
+        }
+        return align(OBJECT_HEADER + 8 * REFERENCE)
+                + string(vo.getUsername())
+                + (vo.getRanking() == null ? 0 : BOXED)
+                + (vo.getAcCount() == null ? 0 : BOXED)
+                + (vo.getSubmitCount() == null ? 0 : BOXED)
+                + (vo.getTotalUsers() == null ? 0 : BOXED)
+                + (vo.getRankingPercentage() == null ? 0 : BOXED);
+    }
+
+    /**
+     * String对象加上字节数组；非Latin-1字符按UTF-16每字符2字节
+     */
+    private static int string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return align(OBJECT_HEADER + REFERENCE + 4 + 4) + align(ARRAY_HEADER + value.length() * (latin1 ? 1 : 2));
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
@@ -1,7 +1,11 @@
 package com.ita.home.config.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.ita.home.enums.OjPlatformEnum;
 import com.ita.home.model.vo.UserPlatformRankingVo;
+import com.ita.home.service.impl.RankingEpochService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
@@ -11,47 +15,82 @@ import java.util.Optional;
 /**
  * @Author: Mikkeyf
  * @CreateTime: 2025/9/26 16:02
+ * 条目记录写入时的排名版本，平台发布新版本后旧条目自然失效，无需整体清空
  */
 @Component
 @Slf4j
 public class CaffeineRankingCache {
     // 直接注入Cache对象，而不是CacheManager
-    private final Cache<String, UserPlatformRankingVo> platformRankingCache;
+    private final Cache<PlatformUserKey, Entry> platformRankingCache;
+    private final RankingEpochService rankingEpochService;
 
     public CaffeineRankingCache(
-            @Qualifier("platformRankingCache") Cache<String, UserPlatformRankingVo> platformRankingCache) {
+            @Qualifier("platformRankingCache") Cache<PlatformUserKey, Entry> platformRankingCache,
+            RankingEpochService rankingEpochService) {
         this.platformRankingCache = platformRankingCache;
+        this.rankingEpochService = rankingEpochService;
     }
 
     /**
-     * 获取平台排名缓存
+     * 获取平台排名缓存，只返回当前版本的条目
      */
     public Optional<UserPlatformRankingVo> getRanking(String platformId, Long userId) {
-        String key = buildCacheKey(platformId, userId);
-        UserPlatformRankingVo cached = platformRankingCache.getIfPresent(key);
-
-        if (cached != null) {
-            log.debug("Caffeine平台排名缓存命中: {}", key);
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(platformId);
+        if (platform == null) {
+            return Optional.empty();
+        }
+        Entry cached = platformRankingCache.getIfPresent(PlatformUserKey.of(platform, userId));
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (cached.getEpochId() != rankingEpochService.current(platform).getEpochId()) {
+            log.debug("Caffeine平台排名缓存版本已过期: platform={}, userId={}", platformId, userId);
+            return Optional.empty();
         }
 
-        return Optional.ofNullable(cached);
+        log.debug("Caffeine平台排名缓存命中: platform={}, userId={}", platformId, userId);
+        return Optional.of(cached.getRanking());
     }
 
     /**
-     * 存储平台排名缓存
+     * 存储平台排名缓存，记为当前版本
      */
     public void putRanking(String platformId, Long userId, UserPlatformRankingVo ranking) {
-        String key = buildCacheKey(platformId, userId);
-        platformRankingCache.put(key, ranking);
-        log.debug("Caffeine平台排名缓存存储: {}", key);
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(platformId);
+        if (platform == null) {
+            return;
+        }
+        long epochId = rankingEpochService.current(platform).getEpochId();
+        platformRankingCache.put(PlatformUserKey.of(platform, userId), new Entry(ranking, epochId));
+        log.debug("Caffeine平台排名缓存存储: platform={}, userId={}, epoch={}", platformId, userId, epochId);
     }
 
     /**
-     * 生成缓存Key
+     * 淘汰平台排名缓存
      */
-    private String buildCacheKey(String platformId, Long userId) {
-        return String.format("ranking:%s:%d", platformId, userId);
+    public void invalidate(String platformId, Long userId) {
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(platformId);
+        if (platform != null) {
+            platformRankingCache.invalidate(PlatformUserKey.of(platform, userId));
+        }
     }
 
+    /**
+     * 判断是否已缓存平台的排名（不计入命中统计，不校验版本）
+     */
+    public boolean contains(String platformId, Long userId) {
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(platformId);
+        return platform != null && platformRankingCache.asMap().containsKey(PlatformUserKey.of(platform, userId));
+    }
 
+    /**
+     * 排名缓存条目
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final UserPlatformRankingVo ranking;
+        /** 写入时平台的排名版本号 */
+        private final long epochId;
+    }
 }
@@ -0,0 +1,155 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.mapper.CacheInvalidationMapper;
+import com.ita.home.model.event.CacheInvalidationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于cache_invalidation_log表的失效广播
+ * 发布时先淘汰本节点的key，再追加一行日志；每个节点定时读取自己位置之后的新日志并执行，跳过自己发出的事件。
+ * 自增ID的提交顺序可能与分配顺序不同，较小ID的事件可能在较大ID之后才可见，
+ * 因此每次轮询都从已读最大ID往前rescan-window个ID开始重读，已执行过的ID记录在有界集合中跳过。
+ * 节点启动时从当前最大ID开始读取，不重放启动前的事件；超过保留时间的日志定期清理
+ */
+@Component
+@ConditionalOnProperty(name = "ita.oj.cache.invalidation.mode", havingValue = "jdbc")
+@Slf4j
+public class JdbcInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    private final CacheInvalidationMapper invalidationMapper;
+    private final CacheInvalidationHandler handler;
+
+    /** 本节点ID，每次启动重新生成 */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ScheduledExecutorService pollScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-invalidation-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 已读取到的最大日志ID，只由轮询线程修改 */
+    private volatile long lastSeenId;
+
+    /** 启动时的最大日志ID，重读窗口不会早于这里 */
+    private long startId;
+
+    /** 重读窗口内已执行过的日志ID，只由轮询线程访问，窗口之前的ID会被移除 */
+    private final NavigableSet<Long> appliedIds = new TreeSet<>();
+
+    @Value("${ita.oj.cache.invalidation.poll-interval-millis:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${ita.oj.cache.invalidation.batch-size:500}")
+    private int batchSize;
+
+    /** 每次轮询往回重读的ID数，应覆盖同一时刻可能未提交的写入数 */
+    @Value("${ita.oj.cache.invalidation.rescan-window:100}")
+    private long rescanWindow;
+
+    @Value("${ita.oj.cache.invalidation.retention-hours:24}")
+    private long retentionHours;
+
+    public JdbcInvalidationBroadcaster(CacheInvalidationMapper invalidationMapper,
+                                       CacheInvalidationHandler handler) {
+        this.invalidationMapper = invalidationMapper;
+        this.handler = handler;
+    }
+
+    @PostConstruct
+    public void start() {
+        lastSeenId = invalidationMapper.findMaxId();
+        startId = lastSeenId;
+        pollScheduler.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        pollScheduler.scheduleWithFixedDelay(this::purge, 1, 1, TimeUnit.HOURS);
+        log.info("JDBC缓存失效广播已启动: node={}, 起始位置={}", nodeId, lastSeenId);
+    }
+
+    @Override
+    public void publish(CacheInvalidationEvent event) {
+        handler.apply(event);
+        event.setOriginNode(nodeId);
+        event.setCreateTime(LocalDateTime.now());
+        try {
+            invalidationMapper.insert(event);
+        } catch (Exception e) {
+            // 广播失败时其他节点的缓存会在TTL到期后自然更新
+            log.error("写入缓存失效日志失败: {}", event, e);
+        }
+    }
+
+    /**
+     * 先淘汰本节点的key，再按batch-size分批用多行INSERT写入日志
+     */
+    @Override
+    public void publishAll(List<CacheInvalidationEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CacheInvalidationEvent event : events) {
+            handler.apply(event);
+            event.setOriginNode(nodeId);
+            event.setCreateTime(now);
+        }
+        for (int i = 0; i < events.size(); i += batchSize) {
+            List<CacheInvalidationEvent> batch = events.subList(i, Math.min(i + batchSize, events.size()));
+            try {
+                invalidationMapper.insertBatch(batch);
+            } catch (Exception e) {
+                log.error("批量写入缓存失效日志失败: {}条", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 从重读窗口起点开始读取并执行其他节点发出的事件，跳过已执行过的ID，一次读不完时继续读取下一批
+     */
+    void poll() {
+        try {
+            long cursor = Math.max(startId, lastSeenId - rescanWindow);
+            List<CacheInvalidationEvent> events;
+            do {
+                events = invalidationMapper.findAfter(cursor, batchSize);
+                for (CacheInvalidationEvent event : events) {
+                    cursor = event.getId();
+                    if (!appliedIds.add(event.getId())) {
+                        continue;
+                    }
+                    if (!nodeId.equals(event.getOriginNode())) {
+                        handler.apply(event);
+                    }
+                    lastSeenId = Math.max(lastSeenId, event.getId());
+                }
+            } while (events.size() >= batchSize);
+            appliedIds.headSet(lastSeenId - rescanWindow, true).clear();
+        } catch (Exception e) {
+            log.error("读取缓存失效日志失败，下次轮询重试", e);
+        }
+    }
+
+    private void purge() {
+        try {
+            int deleted = invalidationMapper.deleteBefore(LocalDateTime.now().minusHours(retentionHours));
+            log.debug("清理缓存失效日志: {}条", deleted);
+        } catch (Exception e) {
+            log.error("清理缓存失效日志失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pollScheduler.shutdownNow();
+    }
+}
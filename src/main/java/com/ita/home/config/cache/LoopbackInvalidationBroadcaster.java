@@ -0,0 +1,31 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.model.event.CacheInvalidationEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 仅在本JVM内生效的失效广播，用于单实例部署和测试
+ */
+@Component
+@ConditionalOnProperty(name = "ita.oj.cache.invalidation.mode", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    private final CacheInvalidationHandler handler;
+
+    public LoopbackInvalidationBroadcaster(CacheInvalidationHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void publish(CacheInvalidationEvent event) {
+        handler.apply(event);
+    }
+
+    @Override
+    public void publishAll(List<CacheInvalidationEvent> events) {
+        events.forEach(handler::apply);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.ita.home.service.UserOjService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * ojDataCache的加载器
+ * 首次加载：数据库缓存 -> 实时数据；软过期后的后台刷新：直接获取实时数据，失败时Caffeine保留旧值
+ * 加载结果打包为PackedOjUserData后放入缓存
+ */
+@Component
+@Slf4j
+public class OjDataCacheLoader implements CacheLoader<Long, PackedOjUserData> {
+
+    // UserOjService依赖ojDataCache，延迟注入以打破循环依赖
+    private final UserOjService userOjService;
+
+    public OjDataCacheLoader(@Lazy UserOjService userOjService) {
+        this.userOjService = userOjService;
+    }
+
+    @Override
+    public PackedOjUserData load(Long userId) {
+        log.info("用户{}未命中Caffeine缓存，加载数据", userId);
+        return PackedOjUserData.from(userOjService.loadOjUserDataVo(userId, false));
+    }
+
+    @Override
+    public PackedOjUserData reload(Long userId, PackedOjUserData oldValue) {
+        PackedOjUserData refreshed = PackedOjUserData.from(userOjService.loadOjUserDataVo(userId, true));
+        log.debug("缓存后台刷新完成: userId={}", userId);
+        return refreshed;
+    }
+}
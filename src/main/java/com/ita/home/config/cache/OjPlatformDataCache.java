@@ -0,0 +1,74 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.ita.home.config.OjCacheProperties;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.dto.OjDataDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按(用户, 平台)缓存的单平台数据，位于用户汇总缓存之下
+ * 每个平台有独立的新鲜期；过期的条目不会被立即删除，上游调用失败时作为最近一次成功值继续使用
+ */
+@Component
+@Slf4j
+public class OjPlatformDataCache {
+
+    private final Cache<PlatformUserKey, Entry> ojPlatformDataCache;
+    private final OjCacheProperties cacheProperties;
+
+    public OjPlatformDataCache(@Qualifier("ojPlatformDataCache") Cache<PlatformUserKey, Entry> ojPlatformDataCache,
+                               OjCacheProperties cacheProperties) {
+        this.ojPlatformDataCache = ojPlatformDataCache;
+        this.cacheProperties = cacheProperties;
+    }
+
+    /**
+     * 获取平台数据缓存（无论是否新鲜）
+     */
+    public Entry get(OjPlatformEnum platform, Long userId) {
+        return ojPlatformDataCache.getIfPresent(PlatformUserKey.of(platform, userId));
+    }
+
+    /**
+     * 存储平台数据缓存，获取时间记为当前时间
+     */
+    public void put(OjPlatformEnum platform, Long userId, OjDataDto data) {
+        PlatformUserKey key = PlatformUserKey.of(platform, userId);
+        ojPlatformDataCache.put(key, new Entry(data, System.currentTimeMillis()));
+        log.debug("平台数据缓存存储: {}", key);
+    }
+
+    /**
+     * 淘汰用户所有平台的数据缓存
+     */
+    public void invalidateUser(Long userId) {
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            ojPlatformDataCache.invalidate(PlatformUserKey.of(platform, userId));
+        }
+    }
+
+    /**
+     * 判断条目是否仍在该平台的新鲜期内
+     */
+    public boolean isFresh(OjPlatformEnum platform, Entry entry) {
+        long ttlMillis = cacheProperties.getPlatformTtl(platform.getPlatformId()).toMillis();
+        return System.currentTimeMillis() - entry.getFetchTimeMillis() < ttlMillis;
+    }
+
+    /**
+     * 单平台缓存条目
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        /** 该平台最近一次成功获取的数据 */
+        private final OjDataDto data;
+        /** 获取（或上游确认未变化）的时间戳 */
+        private final long fetchTimeMillis;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.dto.OjDataDto;
+import com.ita.home.model.vo.OjUserDataVo;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ojDataCache中的紧凑缓存值
+ * 按OjPlatformEnum序号把各平台的通过数、提交数存入一个int数组，用位掩码记录用户绑定了哪些平台；
+ * 不可变，只在返回给调用方时转换为OjUserDataVo。相比VO + ArrayList + 多个OjDataDto和装箱Integer，
+ * 每个用户的堆占用约为原来的四分之一
+ */
+public final class PackedOjUserData {
+
+    private static final OjPlatformEnum[] PLATFORMS = OjPlatformEnum.values();
+    private static final long NO_FETCH_TIME = Long.MIN_VALUE;
+
+    /** 下标2*ordinal为通过数，2*ordinal+1为提交数 */
+    private final int[] counts;
+    /** 第ordinal位为1表示该平台有数据 */
+    private final int presentMask;
+    private final int totalAc;
+    private final int totalSubmit;
+    private final long fetchTimeMillis;
+
+    PackedOjUserData(int[] counts, int presentMask, int totalAc, int totalSubmit, long fetchTimeMillis) {
+        this.counts = counts;
+        this.presentMask = presentMask;
+        this.totalAc = totalAc;
+        this.totalSubmit = totalSubmit;
+        this.fetchTimeMillis = fetchTimeMillis;
+    }
+
+    /**
+     * 由VO打包；名称无法对应到平台的条目被忽略
+     * @return vo为null时返回null
+     */
+    public static PackedOjUserData from(OjUserDataVo vo) {
+        if (vo == null) {
+            return null;
+        }
+        int[] counts = new int[PLATFORMS.length * 2];
+        int presentMask = 0;
+        if (vo.getOjDataDtoList() != null) {
+            for (OjDataDto dto : vo.getOjDataDtoList()) {
+                OjPlatformEnum platform = resolvePlatform(dto.getName());
+                if (platform == null) {
+                    continue;
+                }
+                int ordinal = platform.ordinal();
+                counts[2 * ordinal] = dto.getSolved() != null ? dto.getSolved() : 0;
+                counts[2 * ordinal + 1] = dto.getSubmitted() != null ? dto.getSubmitted() : 0;
+                presentMask |= 1 << ordinal;
+            }
+        }
+        long fetchTimeMillis = vo.getFetchTime() == null ? NO_FETCH_TIME
+                : vo.getFetchTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new PackedOjUserData(counts, presentMask,
+                vo.getTotalAc() != null ? vo.getTotalAc() : 0,
+                vo.getTotalSubmit() != null ? vo.getTotalSubmit() : 0,
+                fetchTimeMillis);
+    }
+
+    /**
+     * 展开为VO，平台按OjPlatformEnum顺序排列
+     */
+    public OjUserDataVo toVo(boolean stale) {
+        List<OjDataDto> ojDataDtoList = new ArrayList<>(Integer.bitCount(presentMask));
+        for (OjPlatformEnum platform : PLATFORMS) {
+            if (hasPlatform(platform)) {
+                ojDataDtoList.add(OjDataDto.builder()
+                        .name(platform.getPlatformId())
+                        .solved(getSolved(platform))
+                        .submitted(getSubmitted(platform))
+                        .build());
+            }
+        }
+        return OjUserDataVo.builder()
+                .ojDataDtoList(ojDataDtoList)
+                .totalAc(totalAc)
+                .totalSubmit(totalSubmit)
+                .fetchTime(fetchTimeMillis == NO_FETCH_TIME ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(fetchTimeMillis), ZoneId.systemDefault()))
+                .stale(stale)
+                .build();
+    }
+
+    public boolean hasPlatform(OjPlatformEnum platform) {
+        return (presentMask & (1 << platform.ordinal())) != 0;
+    }
+
+    public int getSolved(OjPlatformEnum platform) {
+        return counts[2 * platform.ordinal()];
+    }
+
+    public int getSubmitted(OjPlatformEnum platform) {
+        return counts[2 * platform.ordinal() + 1];
+    }
+
+    int getPresentMask() {
+        return presentMask;
+    }
+
+    int getTotalAc() {
+        return totalAc;
+    }
+
+    int getTotalSubmit() {
+        return totalSubmit;
+    }
+
+    long getFetchTimeMillis() {
+        return fetchTimeMillis;
+    }
+
+    /**
+     * 上游返回的名称可能是平台ID或平台代码
+     */
+    private static OjPlatformEnum resolvePlatform(String name) {
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(name);
+        return platform != null ? platform : OjPlatformEnum.getByPlatformCode(name);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.enums.OjPlatformEnum;
+
+/**
+ * (平台, 用户)复合缓存Key，用于按平台区分的用户级缓存
+ * 使用平台枚举序号和原始long，查询时无需拼接字符串
+ */
+public record PlatformUserKey(int platformOrdinal, long userId) {
+
+    public static PlatformUserKey of(OjPlatformEnum platform, long userId) {
+        return new PlatformUserKey(platform.ordinal(), userId);
+    }
+}
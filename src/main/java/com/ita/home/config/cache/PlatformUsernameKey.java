@@ -0,0 +1,9 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.enums.OjPlatformEnum;
+
+/**
+ * (平台, 平台用户名)复合缓存Key，用于按上游账号区分的缓存
+ */
+public record PlatformUsernameKey(OjPlatformEnum platform, String username) {
+}
@@ -0,0 +1,47 @@
+package com.ita.home.config.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 从快照恢复的ojDataCache条目在恢复前已经历的时间
+ * Caffeine只能按放入时间计时，恢复的条目会重新获得完整的软过期时间；
+ * 读取时把这里记录的年龄与Caffeine记录的年龄相加，得到条目的真实年龄。条目被重新写入后记录失效
+ */
+@Component
+public class RestoredAgeRegistry {
+
+    /** userId -> 恢复前已有的年龄（纳秒） */
+    private final Map<Long, Long> restoredAgeNanos = new ConcurrentHashMap<>();
+
+    /** 全部条目放入缓存后的时间（System.nanoTime），与Caffeine默认的计时源一致 */
+    private volatile long restoredAtNanos;
+
+    /**
+     * 登记一批已放入缓存的条目，需在全部条目放入之后调用
+     */
+    public void register(Map<Long, Long> ageNanosByUserId) {
+        restoredAgeNanos.putAll(ageNanosByUserId);
+        restoredAtNanos = System.nanoTime();
+    }
+
+    /**
+     * 条目恢复前已有的年龄
+     * @param cacheAgeNanos Caffeine记录的该条目年龄
+     * @return 条目不是从快照恢复的，或恢复后已被重新写入时返回0
+     */
+    public long restoredAgeNanos(Long userId, long cacheAgeNanos) {
+        Long age = restoredAgeNanos.get(userId);
+        if (age == null) {
+            return 0;
+        }
+        // 恢复时放入的条目在restoredAtNanos之前写入，年龄不会小于此后经过的时间；更小说明已被重新写入
+        if (cacheAgeNanos < System.nanoTime() - restoredAtNanos) {
+            restoredAgeNanos.remove(userId);
+            return 0;
+        }
+        return age;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ita.home.enums;
 
+import com.ita.home.model.entity.UserOj;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
@@ -65,4 +66,48 @@ public enum OjPlatformEnum {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取用户在该平台绑定的用户名
+     * @param userOj 用户OJ账号信息
+     * @return 平台用户名，未绑定时为null
+     */
+    public String getUsername(UserOj userOj) {
+        return switch (this) {
+            case LEETCODE_CN -> userOj.getLeetcodeCnUsername();
+            case LUOGU -> userOj.getLuoguUsername();
+            case CODEFORCES -> userOj.getCodeforceUsername();
+            case NOWCODER -> userOj.getNowcoderUserId();
+        };
+    }
+
+    /**
+     * 获取数据库中保存的该平台AC数
+     * @param userOj 用户OJ账号信息
+     * @return AC数，为空时返回0
+     */
+    public int getAcNum(UserOj userOj) {
+        Integer acNum = switch (this) {
+            case LEETCODE_CN -> userOj.getLeetcodeAcNum();
+            case LUOGU -> userOj.getLuoguAcNum();
+            case CODEFORCES -> userOj.getCodeforcesAcNum();
+            case NOWCODER -> userOj.getNowcoderAcNum();
+        };
+        return acNum != null ? acNum : 0;
+    }
+
+    /**
+     * 获取数据库中保存的该平台提交数
+     * @param userOj 用户OJ账号信息
+     * @return 提交数，为空时返回0
+     */
+    public int getSubmitNum(UserOj userOj) {
+        Integer submitNum = switch (this) {
+            case LEETCODE_CN -> userOj.getLeetcodeSubmitNum();
+            case LUOGU -> userOj.getLuoguSubmitNum();
+            case CODEFORCES -> userOj.getCodeforcesSubmitNum();
+            case NOWCODER -> userOj.getNowcoderSubmitNum();
+        };
+        return submitNum != null ? submitNum : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ita.home.mapper;
+
+import com.ita.home.model.event.CacheInvalidationEvent;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 缓存失效日志Mapper，供JdbcInvalidationBroadcaster在节点间传递失效事件
+ */
+@Mapper
+public interface CacheInvalidationMapper {
+
+    /**
+     * 追加一条失效事件
+     */
+    @Insert("INSERT INTO ita_home.cache_invalidation_log (target, user_id, platform_id, origin_node, create_time) " +
+            "VALUES (#{target}, #{userId}, #{platformId}, #{originNode}, #{createTime})")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(CacheInvalidationEvent event);
+
+    /**
+     * 用一条多行INSERT追加一批失效事件
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO ita_home.cache_invalidation_log (target, user_id, platform_id, origin_node, create_time) VALUES ",
+            "<foreach collection='events' item='item' separator=','>",
+            "    (#{item.target}, #{item.userId}, #{item.platformId}, #{item.originNode}, #{item.createTime})",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("events") List<CacheInvalidationEvent> events);
+
+    /**
+     * 读取指定位置之后的事件，按ID升序
+     */
+    @Select("SELECT id, target, user_id, platform_id, origin_node, create_time " +
+            "FROM ita_home.cache_invalidation_log WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<CacheInvalidationEvent> findAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 当前最大的事件ID，节点启动时从这里开始读取
+     */
+    @Select("SELECT COALESCE(MAX(id), 0) FROM ita_home.cache_invalidation_log")
+    long findMaxId();
+
+    /**
+     * 清理早于指定时间的事件
+     */
+    @Delete("DELETE FROM ita_home.cache_invalidation_log WHERE create_time < #{before}")
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
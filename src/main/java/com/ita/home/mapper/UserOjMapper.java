@@ -2,16 +2,21 @@ package com.ita.home.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ita.home.model.dto.PlatformUserDataDto;
+import com.ita.home.model.dto.RankingCursor;
 import com.ita.home.model.dto.UserRankingDto;
 import com.ita.home.model.entity.User;
 import com.ita.home.model.entity.UserOj;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户OJ平台账号Mapper接口
@@ -60,6 +65,13 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
                         @Param("lastAccessTime") LocalDateTime lastAccessTime,
                         @Param("updateTime") LocalDateTime updateTime);
 
+    /**
+     * 上游数据未变化时仅刷新缓存时间
+     */
+    @Update("UPDATE ita_home.user_oj SET cache_time = #{cacheTime} WHERE user_id = #{userId}")
+    int updateCacheTime(@Param("userId") Long userId,
+                        @Param("cacheTime") LocalDateTime cacheTime);
+
     /**
      * 仅更新访问时间
      */
@@ -67,6 +79,39 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
     void updateLastAccessTime(@Param("userId") Long userId,
                              @Param("lastAccessTime") LocalDateTime lastAccessTime);
 
+    /**
+     * 批量更新访问时间，一条多行CASE语句
+     * @param accessTimes key为userId，value为最近访问时间
+     */
+    @Update({
+            "<script>",
+            "UPDATE ita_home.user_oj SET last_access_time = CASE user_id",
+            "<foreach collection='accessTimes' index='userId' item='accessTime' separator=' '>",
+            "    WHEN #{userId} THEN #{accessTime}",
+            "</foreach>",
+            "END WHERE user_id IN",
+            "<foreach collection='accessTimes' index='userId' open='(' separator=',' close=')'>",
+            "    #{userId}",
+            "</foreach>",
+            "</script>"
+    })
+    int batchUpdateLastAccessTime(@Param("accessTimes") Map<Long, LocalDateTime> accessTimes);
+
+    /**
+     * 流式读取活跃用户的OJ数据（按最近访问时间倒序），用于启动时预热缓存
+     * 逐行交给handler处理，不会一次性把结果集加载到内存
+     */
+    @Select("SELECT * FROM ita_home.user_oj WHERE last_access_time >= #{activeTime} ORDER BY last_access_time DESC")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamActiveUserOj(@Param("activeTime") LocalDateTime activeTime, ResultHandler<UserOj> handler);
+
+    /**
+     * 流式读取全部用户的OJ数据，用于构建内存排名索引
+     */
+    @Select("SELECT * FROM ita_home.user_oj")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamAllUserOj(ResultHandler<UserOj> handler);
+
     /**
      * 查询活跃用户ID
      */
@@ -113,6 +158,46 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
     List<UserRankingDto> findActiveUserRankings(@Param("offset") int offset,
                                                 @Param("limit") int limit);
 
+    /**
+     * 游标分页查询有AC记录的用户排名，沿idx_total_rank索引定位到游标之后，翻页深度不影响代价
+     * 排序键加上用户ID保证成绩相同的用户顺序稳定；cursor为null时从第一行开始
+     */
+    @Select({
+            "<script>",
+            "SELECT uo.user_id as userId, u.name as name, ",
+            "uo.total_ac_num as totalAc, uo.total_commit_num as totalSubmit, uo.cache_time as lastUpdateTime ",
+            "FROM ita_home.user_oj uo ",
+            "INNER JOIN ita_home.user u ON uo.user_id = u.id ",
+            "WHERE uo.total_ac_num &gt; 0 ",
+            "<if test='cursor != null'>",
+            "AND (uo.total_ac_num &lt; #{cursor.totalAc} ",
+            "  OR (uo.total_ac_num = #{cursor.totalAc} AND (uo.total_commit_num &gt; #{cursor.totalSubmit} ",
+            "    OR (uo.total_commit_num = #{cursor.totalSubmit} AND uo.user_id &gt; #{cursor.userId})))) ",
+            "</if>",
+            "ORDER BY uo.total_ac_num DESC, uo.total_commit_num ASC, uo.user_id ASC ",
+            "LIMIT #{limit}",
+            "</script>"
+    })
+    List<UserRankingDto> findActiveUserRankingsAfter(@Param("cursor") RankingCursor cursor,
+                                                     @Param("limit") int limit);
+
+    /**
+     * 游标分页查询没有AC记录的用户（总AC数为0或缓存已清空），按用户ID排序，排在所有有AC记录的用户之后
+     */
+    @Select("SELECT " +
+            "uo.user_id as userId, " +
+            "u.name as name, " +
+            "IFNULL(uo.total_ac_num, 0) as totalAc, " +
+            "IFNULL(uo.total_commit_num, 0) as totalSubmit, " +
+            "uo.cache_time as lastUpdateTime " +
+            "FROM ita_home.user_oj uo " +
+            "INNER JOIN ita_home.user u ON uo.user_id = u.id " +
+            "WHERE (uo.total_ac_num IS NULL OR uo.total_ac_num = 0) AND uo.user_id > #{afterUserId} " +
+            "ORDER BY uo.user_id ASC " +
+            "LIMIT #{limit}")
+    List<UserRankingDto> findInactiveUserRankingsAfter(@Param("afterUserId") long afterUserId,
+                                                       @Param("limit") int limit);
+
     /**
      * 统计所有用户数量
      */
@@ -141,48 +226,6 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
             "WHERE uo.user_id = #{userId}")
     UserRankingDto findUserDataById(@Param("userId") Long userId);
 
-    /**
-     * 计算比指定用户成绩更好的用户数量
-     */
-    @Select("SELECT COUNT(*) FROM ita_home.user_oj " +
-            "WHERE (total_ac_num > #{totalAc} " +
-            "OR (total_ac_num = #{totalAc} AND total_commit_num < #{totalSubmit})) " +
-            "AND total_ac_num > 0")
-    Integer countBetterUsers(@Param("totalAc") Integer totalAc,
-                             @Param("totalSubmit") Integer totalSubmit);
-
-
-    /**
-     * 计算用户在指定平台的排名
-     * 排名规则：按AC数降序，AC数相同时按提交数升序
-     */
-    @Select("SELECT COUNT(*) + 1 FROM ita_home.user_oj " +
-            "WHERE CASE #{platformId} " +
-            "    WHEN 'luogu' THEN luogu_username IS NOT NULL AND luogu_username != '' " +
-            "        AND (luogu_ac_num > #{acCount} OR (luogu_ac_num = #{acCount} AND luogu_submit_num < #{submitCount})) " +
-            "    WHEN 'leetcode' THEN leetcode_cn_username IS NOT NULL AND leetcode_cn_username != '' " +
-            "        AND (leetcode_ac_num > #{acCount} OR (leetcode_ac_num = #{acCount} AND leetcode_submit_num < #{submitCount})) " +
-            "    WHEN 'nowcoder' THEN nowcoder_user_id IS NOT NULL AND nowcoder_user_id != '' " +
-            "        AND (nowcoder_ac_num > #{acCount} OR (nowcoder_ac_num = #{acCount} AND nowcoder_submit_num < #{submitCount})) " +
-            "    WHEN 'codeforces' THEN codeforce_username IS NOT NULL AND codeforce_username != '' " +
-            "        AND (codeforces_ac_num > #{acCount} OR (codeforces_ac_num = #{acCount} AND codeforces_submit_num < #{submitCount})) " +
-            "    ELSE FALSE END")
-    Integer calculateUserRanking(@Param("platformId") String platformId,
-                                 @Param("acCount") Integer acCount,
-                                 @Param("submitCount") Integer submitCount);
-
-    /**
-     * 获取指定平台有数据的总用户数
-     */
-    @Select("SELECT COUNT(*) FROM ita_home.user_oj " +
-            "WHERE CASE #{platformId} " +
-            "    WHEN 'luogu' THEN luogu_username IS NOT NULL AND luogu_username != '' " +
-            "    WHEN 'leetcode' THEN leetcode_cn_username IS NOT NULL AND leetcode_cn_username != '' " +
-            "    WHEN 'nowcoder' THEN nowcoder_user_id IS NOT NULL AND nowcoder_user_id != '' " +
-            "    WHEN 'codeforces' THEN codeforce_username IS NOT NULL AND codeforce_username != '' " +
-            "    ELSE FALSE END")
-    Integer getTotalUsersWithPlatformData(@Param("platformId") String platformId);
-
     /**
      * 获取洛谷平台用户数据并按排名规则排序
      * 排名规则：AC数降序，AC数相同时提交数升序
@@ -196,8 +239,7 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
             "    uo.update_time AS updateTime " +
             "FROM ita_home.user_oj uo " +
             "INNER JOIN ita_home.user u ON uo.user_id = u.id " +
-            "WHERE uo.luogu_username IS NOT NULL " +
-            "  AND uo.luogu_username != '' " +
+            "WHERE uo.luogu_bound = 1 " +
             "  AND uo.luogu_ac_num IS NOT NULL " +
             "ORDER BY uo.luogu_ac_num DESC, uo.luogu_submit_num ASC")
     List<PlatformUserDataDto> getLuoguUsersOrdered();
@@ -215,8 +257,7 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
             "    uo.update_time AS updateTime " +
             "FROM ita_home.user_oj uo " +
             "INNER JOIN ita_home.user u ON uo.user_id = u.id " +
-            "WHERE uo.leetcode_cn_username IS NOT NULL " +
-            "  AND uo.leetcode_cn_username != '' " +
+            "WHERE uo.leetcode_bound = 1 " +
             "  AND uo.leetcode_ac_num IS NOT NULL " +
             "ORDER BY uo.leetcode_ac_num DESC, uo.leetcode_submit_num ASC")
     List<PlatformUserDataDto> getLeetcodeUsersOrdered();
@@ -234,8 +275,7 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
             "    uo.update_time AS updateTime " +
             "FROM ita_home.user_oj uo " +
             "INNER JOIN ita_home.user u ON uo.user_id = u.id " +
-            "WHERE uo.nowcoder_user_id IS NOT NULL " +
-            "  AND uo.nowcoder_user_id != '' " +
+            "WHERE uo.nowcoder_bound = 1 " +
             "  AND uo.nowcoder_ac_num IS NOT NULL " +
             "ORDER BY uo.nowcoder_ac_num DESC, uo.nowcoder_submit_num ")
     List<PlatformUserDataDto> getNowcoderUsersOrdered();
@@ -253,8 +293,7 @@ public interface UserOjMapper extends BaseMapper<UserOj> {
             "    uo.update_time AS updateTime " +
             "FROM ita_home.user_oj uo " +
             "INNER JOIN ita_home.user u ON uo.user_id = u.id " +
-            "WHERE uo.codeforce_username IS NOT NULL " +
-            "  AND uo.codeforce_username != '' " +
+            "WHERE uo.codeforces_bound = 1 " +
             "  AND uo.codeforces_ac_num IS NOT NULL " +
             "ORDER BY uo.codeforces_ac_num DESC, uo.codeforces_submit_num ")
     List<PlatformUserDataDto> getCodeforcesUsersOrdered();
@@ -1,12 +1,19 @@
 package com.ita.home.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ita.home.model.entity.RankingEpoch;
 import com.ita.home.model.entity.UserPlatformRanking;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -17,7 +24,7 @@ import java.util.List;
 public interface UserPlatformRankingMapper extends BaseMapper<UserPlatformRanking> {
     /**
      * 批量插入或更新用户平台排名
-     * 使用ON DUPLICATE KEY UPDATE处理重复数据
+     * 使用ON DUPLICATE KEY UPDATE处理重复数据；全量重算只传入与表中现有值不同的行
      */
     @Insert({
             "<script>",
@@ -74,6 +81,38 @@ public interface UserPlatformRankingMapper extends BaseMapper<UserPlatformRankin
             "    update_time = CURRENT_TIMESTAMP")
     int upsertSingleRanking(UserPlatformRanking ranking);
 
+    /**
+     * 读取排序键落在闭区间[betterKey, worseKey]内的快照行（last_calc_time不晚于快照时间），不含变化者本人
+     * 排序键：AC数降序，AC数相同时提交数升序；一个用户成绩变化时，排名受影响的用户都在新旧成绩之间，见RankShift
+     */
+    @Select("SELECT user_id, ac_count, submit_count FROM ita_home.user_platform_ranking " +
+            "WHERE platform_id = #{platformId} AND user_id != #{userId} " +
+            "  AND last_calc_time <= #{calcTime} " +
+            "  AND (ac_count < #{betterAc} OR (ac_count = #{betterAc} AND submit_count >= #{betterSubmit})) " +
+            "  AND (ac_count > #{worseAc} OR (ac_count = #{worseAc} AND submit_count <= #{worseSubmit}))")
+    List<UserPlatformRanking> findSnapshotRowsBetween(@Param("platformId") String platformId,
+                                                      @Param("userId") Long userId,
+                                                      @Param("calcTime") LocalDateTime calcTime,
+                                                      @Param("betterAc") int betterAc,
+                                                      @Param("betterSubmit") int betterSubmit,
+                                                      @Param("worseAc") int worseAc,
+                                                      @Param("worseSubmit") int worseSubmit);
+
+    /**
+     * 指定用户的排名加减delta，百分比按新排名重新计算（MySQL按SET从左到右求值，百分比使用平移后的排名）
+     */
+    @Update({
+            "<script>",
+            "UPDATE ita_home.user_platform_ranking ",
+            "SET ranking = ranking + #{delta}, ranking_percentage = ROUND(ranking * 100 / total_users, 2) ",
+            "WHERE platform_id = #{platformId} AND user_id IN ",
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach>",
+            "</script>"
+    })
+    int shiftRankings(@Param("platformId") String platformId,
+                      @Param("delta") int delta,
+                      @Param("userIds") List<Long> userIds);
+
     /**
      * 根据用户ID和平台ID查询排名信息
      * 基于唯一索引(user_id, platform_id)进行精确查询
@@ -82,4 +121,63 @@ public interface UserPlatformRankingMapper extends BaseMapper<UserPlatformRankin
             "WHERE user_id = #{userId} AND platform_id = #{platformId}")
     UserPlatformRanking findByUserIdAndPlatform(@Param("userId") Long userId,
                                                 @Param("platformId") String platformId);
+
+    /**
+     * 查询所有平台当前的排名快照版本
+     */
+    @Select("SELECT platform_id, epoch_id, calc_time FROM ita_home.ranking_epoch")
+    List<RankingEpoch> findAllEpochs();
+
+    /**
+     * 发布平台的排名快照版本：版本号在数据库中原子递增，多个实例同时发布时不会互相覆盖
+     */
+    @Insert("INSERT INTO ita_home.ranking_epoch (platform_id, epoch_id, calc_time) " +
+            "VALUES (#{platformId}, 1, #{calcTime}) " +
+            "ON DUPLICATE KEY UPDATE epoch_id = epoch_id + 1, calc_time = VALUES(calc_time)")
+    int incrementEpoch(@Param("platformId") String platformId, @Param("calcTime") LocalDateTime calcTime);
+
+    /**
+     * 认领平台本次的全量重算：上次认领距今不足intervalSeconds时不更新，返回0表示已由其他实例执行
+     * 使用数据库时间比较，不受各实例时钟偏差影响
+     */
+    @Update("UPDATE ita_home.ranking_epoch SET check_time = NOW() " +
+            "WHERE platform_id = #{platformId} " +
+            "AND (check_time IS NULL OR check_time <= NOW() - INTERVAL #{intervalSeconds} SECOND)")
+    int claimRecompute(@Param("platformId") String platformId, @Param("intervalSeconds") long intervalSeconds);
+
+    /**
+     * 查询平台当前的排名快照版本
+     */
+    @Select("SELECT platform_id, epoch_id, calc_time FROM ita_home.ranking_epoch WHERE platform_id = #{platformId}")
+    RankingEpoch findEpoch(@Param("platformId") String platformId);
+
+    /**
+     * 流式读取平台当前的全部排名行，全量重算据此只写入发生变化的行
+     */
+    @Select("SELECT user_id, username, ranking, ac_count, submit_count, total_users, last_calc_time " +
+            "FROM ita_home.user_platform_ranking WHERE platform_id = #{platformId}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamPlatformRankings(@Param("platformId") String platformId,
+                                ResultHandler<UserPlatformRanking> handler);
+
+    /**
+     * 删除平台中已不再参与排名的用户（解绑账号）
+     */
+    @Delete({
+            "<script>",
+            "DELETE FROM ita_home.user_platform_ranking WHERE platform_id = #{platformId} AND user_id IN ",
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach>",
+            "</script>"
+    })
+    int deleteRankings(@Param("platformId") String platformId, @Param("userIds") List<Long> userIds);
+
+    /**
+     * 流式读取活跃用户的平台排名（按最近访问时间倒序），用于启动时预热缓存
+     */
+    @Select("SELECT r.* FROM ita_home.user_platform_ranking r " +
+            "JOIN ita_home.user_oj o ON o.user_id = r.user_id " +
+            "WHERE o.last_access_time >= #{activeTime} ORDER BY o.last_access_time DESC")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void streamActiveUserRankings(@Param("activeTime") LocalDateTime activeTime,
+                                  ResultHandler<UserPlatformRanking> handler);
 }
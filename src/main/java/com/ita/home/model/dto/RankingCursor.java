@@ -0,0 +1,65 @@
+package com.ita.home.model.dto;
+
+import com.ita.home.exception.BaseException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 总榜游标分页的位置：上一页最后一行的(总AC数, 总提交数, 用户ID)
+ * 排序为总AC数降序、总提交数升序、用户ID升序，下一页从严格排在该行之后的位置开始；
+ * 对外是不透明的URL安全Base64字符串，总AC数为0表示已进入没有AC记录的用户段（按用户ID排序）
+ */
+@Data
+@AllArgsConstructor
+public class RankingCursor {
+
+    private static final String VERSION = "v1";
+
+    private int totalAc;
+    private int totalSubmit;
+    private long userId;
+
+    /**
+     * 是否已进入没有AC记录的用户段
+     */
+    public boolean isInactiveSegment() {
+        return totalAc <= 0;
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + totalAc + ":" + totalSubmit + ":" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，空字符串表示第一页，返回null
+     */
+    public static RankingCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new BaseException("排名游标无效");
+            }
+            return new RankingCursor(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BaseException("排名游标无效");
+        }
+    }
+
+    /**
+     * 以某一行作为下一页的起点
+     */
+    public static RankingCursor after(UserRankingDto row) {
+        return new RankingCursor(
+                row.getTotalAc() != null ? row.getTotalAc() : 0,
+                row.getTotalSubmit() != null ? row.getTotalSubmit() : 0,
+                row.getUserId());
+    }
+}
@@ -0,0 +1,32 @@
+package com.ita.home.model.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 平台排名快照版本
+ * 对应数据库中的ranking_epoch表，每次全量排名计算完成后发布一个新版本
+ */
+@TableName("ranking_epoch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "平台排名快照版本")
+public class RankingEpoch {
+
+    @Schema(description = "平台ID", example = "luogu")
+    private String platformId;
+
+    @Schema(description = "排名快照版本号，单调递增", example = "42")
+    private Long epochId;
+
+    @Schema(description = "该版本排名的计算时间")
+    private LocalDateTime calcTime;
+}
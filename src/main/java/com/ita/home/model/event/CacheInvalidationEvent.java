@@ -0,0 +1,62 @@
+package com.ita.home.model.event;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 缓存失效事件
+ * 某个节点修改了用户数据后广播给其他节点，收到的节点只淘汰受影响的key；
+ * 使用JDBC广播时对应cache_invalidation_log表的一行
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "缓存失效事件")
+public class CacheInvalidationEvent {
+
+    @Schema(description = "日志自增ID，JDBC广播时用作各节点的读取位置")
+    private Long id;
+
+    @Schema(description = "失效的缓存")
+    private Target target;
+
+    @Schema(description = "用户ID")
+    private Long userId;
+
+    @Schema(description = "平台ID，target为PLATFORM_RANKING时必填")
+    private String platformId;
+
+    @Schema(description = "发出事件的节点ID，节点跳过自己发出的事件")
+    private String originNode;
+
+    @Schema(description = "事件创建时间")
+    private LocalDateTime createTime;
+
+    public enum Target {
+        /** 用户OJ汇总数据及各平台数据（ojDataCache、ojPlatformDataCache） */
+        OJ_DATA,
+        /** 用户单个平台的排名（platformRankingCache） */
+        PLATFORM_RANKING
+    }
+
+    public static CacheInvalidationEvent ojData(Long userId) {
+        return CacheInvalidationEvent.builder()
+                .target(Target.OJ_DATA)
+                .userId(userId)
+                .build();
+    }
+
+    public static CacheInvalidationEvent platformRanking(String platformId, Long userId) {
+        return CacheInvalidationEvent.builder()
+                .target(Target.PLATFORM_RANKING)
+                .userId(userId)
+                .platformId(platformId)
+                .build();
+    }
+}
@@ -23,4 +23,7 @@ public class RankingRequest {
 
     @Schema(description = "是否只显示有数据的用户", example = "true")
     private Boolean onlyActiveUsers = true;
+
+    @Schema(description = "游标分页：第一页传空字符串，之后传上一页返回的nextCursor；不传时按页码分页", example = "")
+    private String cursor;
 }
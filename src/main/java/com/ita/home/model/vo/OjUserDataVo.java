@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -17,7 +18,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Schema(description = "OJ用户返回数据")
 public class OjUserDataVo {
 
@@ -29,4 +30,10 @@ public class OjUserDataVo {
 
     @Schema(description = "总submit数")
     private Integer totalSubmit;
+
+    @Schema(description = "数据获取时间")
+    private LocalDateTime fetchTime;
+
+    @Schema(description = "是否为已软过期的旧数据，为true时后台正在刷新")
+    private Boolean stale;
 }
@@ -34,4 +34,7 @@ public class RankingPageVo {
 
     @Schema(description = "是否有上一页", example = "false")
     private Boolean hasPrevious;
+
+    @Schema(description = "游标分页时下一页的游标，没有下一页时为空")
+    private String nextCursor;
 }
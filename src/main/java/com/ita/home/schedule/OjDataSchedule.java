@@ -1,6 +1,8 @@
 package com.ita.home.schedule;
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.ita.home.client.UpstreamPriority;
+import com.ita.home.config.cache.PackedOjUserData;
 import com.ita.home.mapper.UserOjMapper;
 import com.ita.home.model.entity.UserOj;
 import com.ita.home.model.vo.OjUserDataVo;
@@ -33,7 +35,7 @@ public class OjDataSchedule {
     private final AsyncOjUpdateService asyncOjUpdateService;
     private final UserOjService userOjService;
     private final ExecutorService executorService;
-    private final Cache<String, OjUserDataVo> ojDataCache;
+    private final AsyncLoadingCache<Long, PackedOjUserData> ojDataCache;
     @Value("${ita.oj.cache.active-user-days}")
     private Integer activateUserDays;
     @Value("${ita.oj.schedule.batch-size}")
@@ -44,7 +46,7 @@ public class OjDataSchedule {
                           AsyncOjUpdateService asyncOjUpdateService,
                           UserOjService userOjService,
                           @Qualifier("ojApiExecutorService") ExecutorService executorService,
-                          @Qualifier("ojDataCache") Cache<String, OjUserDataVo> ojDataCache) {
+                          @Qualifier("ojDataCache") AsyncLoadingCache<Long, PackedOjUserData> ojDataCache) {
         this.userOjMapper = userOjMapper;
         this.asyncOjUpdateService = asyncOjUpdateService;
         this.userOjService = userOjService;
@@ -76,15 +78,13 @@ public class OjDataSchedule {
                 List<CompletableFuture<Boolean>> futures = batch.stream()
                         .map(userId -> CompletableFuture.supplyAsync(() -> {
                             try {
-                                // 获得用户缓存key
-                                String cacheKey = "oj_data:" + userId;
                                 // 获取用户OJ配置
                                 UserOj userOj = userOjMapper.findByUserId(userId);
                                 if (userOj == null) return false;
-                                // 获取实时数据
-                                OjUserDataVo realTimeData = userOjService.getRealTimeOjUserDataVo(userId);
+                                // 获取实时数据（后台优先级，由平台限流器控制请求速率）
+                                OjUserDataVo realTimeData = userOjService.getRealTimeOjUserDataVo(userId, UpstreamPriority.BACKGROUND);
                                 // 更新缓存
-                                ojDataCache.put(cacheKey, realTimeData);
+                                ojDataCache.synchronous().put(userId, PackedOjUserData.from(realTimeData));
                                 // 调用异步更新
                                 return asyncOjUpdateService.updateUserOjDataAsync(realTimeData, userId).get();
                             } catch (Exception e) {
@@ -94,18 +94,8 @@ public class OjDataSchedule {
                         }, executorService))
                         .toList();
 
-                // 等待当前批次完成
+                // 等待当前批次完成，上游请求速率由PlatformRateLimiter控制，批次间无需固定暂停
                 CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-
-                // 批次间暂停，避免对系统造成太大压力
-                if (i < batches.size() - 1) {
-                    try {
-                        Thread.sleep(5000); // 5秒间隔
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                }
             }
 
             log.info("活跃用户OJ数据刷新完成");
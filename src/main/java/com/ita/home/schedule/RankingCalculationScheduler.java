@@ -1,25 +1,31 @@
 package com.ita.home.schedule;
 
-import com.github.benmanes.caffeine.cache.Cache;
 import com.ita.home.enums.OjPlatformEnum;
 import com.ita.home.mapper.UserOjMapper;
 import com.ita.home.mapper.UserPlatformRankingMapper;
 import com.ita.home.model.dto.PlatformUserDataDto;
 import com.ita.home.model.entity.UserPlatformRanking;
-import com.ita.home.model.vo.UserPlatformRankingVo;
+import com.ita.home.service.impl.RankingEpochService;
+import com.ita.home.service.impl.rank.RankingMaintenanceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.cache.CacheManager;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 定时更新排名缓存表
@@ -32,28 +38,62 @@ public class RankingCalculationScheduler {
 
     private final UserOjMapper userOjMapper;
     private final UserPlatformRankingMapper rankingMapper;
-    private final Cache<String, UserPlatformRankingVo> platformRankingCache;
+    private final RankingEpochService rankingEpochService;
+    private final RankingMaintenanceService rankingMaintenanceService;
+
+    private final ScheduledExecutorService recomputeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ranking-recompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ita.oj.ranking.full-recompute-interval-millis:3600000}")
+    private long fullRecomputeIntervalMillis;
 
     @Autowired
     RankingCalculationScheduler(UserOjMapper userOjMapper,
                                 UserPlatformRankingMapper rankingMapper,
-                                @Qualifier("platformRankingCache") Cache<String, UserPlatformRankingVo> platformRankingCache) {
+                                RankingEpochService rankingEpochService,
+                                RankingMaintenanceService rankingMaintenanceService) {
         this.userOjMapper = userOjMapper;
         this.rankingMapper = rankingMapper;
-        this.platformRankingCache = platformRankingCache;
+        this.rankingEpochService = rankingEpochService;
+        this.rankingMaintenanceService = rankingMaintenanceService;
+    }
+
+    /**
+     * 启动后立即做一次全量计算，使各平台都有已发布的排名版本，之后按配置的间隔定时执行；
+     * 每个平台在一个间隔内只由认领成功的一个实例计算，其余实例跳过
+     */
+    @PostConstruct
+    public void start() {
+        recomputeScheduler.scheduleWithFixedDelay(this::calculateAllRankings,
+                0, fullRecomputeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recomputeScheduler.shutdownNow();
     }
 
     /**
-     * 核心定时任务：每10分钟重新计算所有平台排名
+     * 一致性校验：定时全量重新计算所有平台排名，默认每小时一次
+     * 日常的成绩变化由RankingMaintenanceService增量维护，全量重算用于纳入新绑定的用户、
+     * 移除解绑的用户，并纠正增量维护失败或其他实例写入造成的偏差
      */
-    @Scheduled(fixedRate = 600000) // 1分钟
     public void calculateAllRankings() {
         log.info("开始计算所有平台排名...");
 
         for (OjPlatformEnum platform : OjPlatformEnum.values()) {
             try {
+                if (!claimRecompute(platform)) {
+                    log.debug("平台 {} 本周期的排名计算已由其他实例执行，跳过", platform.getPlatformName());
+                    continue;
+                }
                 long startTime = System.currentTimeMillis();
-                calculateSinglePlatformRanking(platform);
+                synchronized (rankingMaintenanceService.lockFor(platform)) {
+                    calculateSinglePlatformRanking(platform);
+                }
                 log.info("平台 {} 排名计算完成，耗时: {}ms",
                         platform.getPlatformName(),
                         System.currentTimeMillis() - startTime);
@@ -62,9 +102,19 @@ public class RankingCalculationScheduler {
             }
         }
 
-        // 清空Caffeine缓存，强制下次查询从数据库读取最新排名
-        platformRankingCache.invalidateAll();
-        log.info("所有平台排名计算完成，Caffeine缓存已清空");
+        log.info("所有平台排名计算完成");
+    }
+
+    /**
+     * 认领平台本周期的全量重算，平台尚未发布过版本时直接执行
+     * 认领时间按秒保存，留出1秒余量，避免同一实例按固定间隔再次执行时因截断被判定为未到期
+     */
+    private boolean claimRecompute(OjPlatformEnum platform) {
+        if (rankingEpochService.current(platform).getCalcTime() == null) {
+            return true;
+        }
+        long intervalSeconds = Math.max(0, fullRecomputeIntervalMillis / 1000 - 1);
+        return rankingMapper.claimRecompute(platform.getPlatformId(), intervalSeconds) > 0;
     }
 
     /**
@@ -83,15 +133,56 @@ public class RankingCalculationScheduler {
         // 2. 计算排名（处理并列排名的情况）
         List<UserPlatformRanking> rankings = calculateRankingsWithTies(users, platform);
 
-        // 3. 批量更新数据库（使用ON DUPLICATE KEY UPDATE）
+        // 3. 与表中现有的排名对比，只写入变化的行，删除不再参与排名的用户
+        Map<Long, UserPlatformRanking> previous = new HashMap<>();
+        rankingMapper.streamPlatformRankings(platformId, context -> {
+            UserPlatformRanking row = context.getResultObject();
+            previous.put(row.getUserId(), row);
+        });
+        LocalDateTime previousCalcTime = rankingEpochService.current(platform).getCalcTime();
+        List<UserPlatformRanking> changed = new ArrayList<>();
+        for (UserPlatformRanking ranking : rankings) {
+            if (isChanged(previous.remove(ranking.getUserId()), ranking, previousCalcTime)) {
+                changed.add(ranking);
+            }
+        }
+        List<Long> removed = new ArrayList<>(previous.keySet());
+
+        // 4. 批量更新数据库（使用ON DUPLICATE KEY UPDATE）
         int batchSize = 500;
-        for (int i = 0; i < rankings.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, rankings.size());
-            List<UserPlatformRanking> batch = rankings.subList(i, end);
-            rankingMapper.batchUpsertRankings(batch);
+        for (int i = 0; i < changed.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, changed.size());
+            rankingMapper.batchUpsertRankings(changed.subList(i, end));
+        }
+        for (int i = 0; i < removed.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, removed.size());
+            rankingMapper.deleteRankings(platformId, removed.subList(i, end));
+        }
+
+        // 5. 全部写入后发布新版本，快照时间只记录在版本中，旧版本的L1条目随之失效；
+        //    没有任何行变化时保留当前版本，L1中的条目（包括从快照恢复和预热的）继续有效
+        if (!changed.isEmpty() || !removed.isEmpty() || previousCalcTime == null) {
+            rankingEpochService.publish(platform, rankings.get(0).getLastCalcTime());
         }
 
-        log.info("平台 {} 排名更新完成，共更新 {} 个用户", platform.getPlatformName(), rankings.size());
+        log.info("平台 {} 排名更新完成，共 {} 个用户，写入 {} 行，删除 {} 行",
+                platform.getPlatformName(), rankings.size(), changed.size(), removed.size());
+    }
+
+    /**
+     * 新计算的排名与表中现有的行是否不同
+     * 上一版本之后由单用户刷新写入的行（last_calc_time晚于上一版本的快照时间）即使数值相同也重写，使其归入本次快照
+     */
+    private boolean isChanged(UserPlatformRanking existing, UserPlatformRanking ranking, LocalDateTime previousCalcTime) {
+        if (existing == null || previousCalcTime == null || existing.getLastCalcTime() == null
+                || existing.getLastCalcTime().isAfter(previousCalcTime)) {
+            return true;
+        }
+        return !Objects.equals(existing.getRanking(), ranking.getRanking())
+                || !Objects.equals(existing.getAcCount(), ranking.getAcCount())
+                || !Objects.equals(existing.getSubmitCount(), ranking.getSubmitCount())
+                || !Objects.equals(existing.getTotalUsers(), ranking.getTotalUsers())
+                || !Objects.equals(existing.getUsername(), ranking.getUsername());
     }
 
     /**
@@ -118,7 +209,8 @@ public class RankingCalculationScheduler {
         int currentRank = 1;
         Integer lastAc = null;
         Integer lastSubmit = null;
-        LocalDateTime calcTime = LocalDateTime.now();
+        // 截断到秒，与DATETIME列中保存的值完全相等，增量维护据此识别属于本次快照的行
+        LocalDateTime calcTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
 
         for (int i = 0; i < users.size(); i++) {
             PlatformUserDataDto user = users.get(i);
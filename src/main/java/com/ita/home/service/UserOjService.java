@@ -1,5 +1,6 @@
 package com.ita.home.service;
 
+import com.ita.home.client.UpstreamPriority;
 import com.ita.home.model.dto.OjUserDataDto;
 import com.ita.home.model.entity.UserOj;
 import com.ita.home.model.req.RankingRequest;
@@ -45,8 +46,38 @@ public interface UserOjService {
      */
     OjUserDataVo getRealTimeOjUserDataVo(Long userId);
 
+    /**
+     * 按指定优先级获取实时Oj信息，定时任务等后台调用使用BACKGROUND，限流时排队等待
+     * @param userId 用户id
+     * @param priority 上游请求优先级
+     * @return 返回ojUserDataVo对象
+     */
+    OjUserDataVo getRealTimeOjUserDataVo(Long userId, UpstreamPriority priority);
+
+    /**
+     * 加载用户汇总数据，供ojDataCache的加载器使用，不读写Caffeine缓存
+     * @param userId 用户id
+     * @param refresh 是否为软过期后的后台刷新（刷新时跳过数据库缓存，失败时抛出异常）
+     * @return 用户OJ账号不存在或未绑定任何平台时返回null
+     */
+    OjUserDataVo loadOjUserDataVo(Long userId, boolean refresh);
+
+    /**
+     * 启动预热：用户的数据库缓存仍有效时直接放入ojDataCache，不访问上游
+     * @param userOj 用户OJ数据
+     * @return 是否放入了缓存
+     */
+    boolean warmUpOjUserData(UserOj userOj);
+
+    /**
+     * 获取被合并的实时请求次数（同一用户并发请求时，复用进行中请求的调用数）
+     * @return 累计合并次数
+     */
+    long getCoalescedRequestCount();
+
     /**
      * 从caffeine缓存->数据库缓存->数据库如果无效，获取实时数据 -> 再写回数据库和caffeine
+     * caffeine缓存软过期后直接返回旧数据（stale=true），同时在后台刷新
      * @param userId 用户id
      * @return 返回OjUserDataVo对象
      */
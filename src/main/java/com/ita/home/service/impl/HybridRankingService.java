@@ -1,25 +1,28 @@
 package com.ita.home.service.impl;
 
+import com.ita.home.config.cache.CacheInvalidationBroadcaster;
 import com.ita.home.config.cache.CaffeineRankingCache;
 import com.ita.home.enums.OjPlatformEnum;
 import com.ita.home.mapper.UserOjMapper;
 import com.ita.home.mapper.UserPlatformRankingMapper;
 import com.ita.home.model.entity.UserOj;
 import com.ita.home.model.entity.UserPlatformRanking;
+import com.ita.home.model.event.CacheInvalidationEvent;
 import com.ita.home.model.vo.UserPlatformRankingVo;
 import com.ita.home.service.impl.async.AsyncRankingService;
+import com.ita.home.service.impl.rank.RankIndexService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.Optional;
 
 /**
  * @Author: Mikkeyf
  * @CreateTime: 2025/9/26 15:41
- * 排名混合查询策略：L1(2-5分钟查缓存) -> L2(5-10分钟查数据库缓存表) -> 实时数据(并激发异步更新策略)
+ * 排名混合查询策略：L1(查缓存) -> L2(查数据库缓存表) -> 内存排名索引实时计算(并激发异步更新策略)
+ * L1、L2的有效性都以平台当前的排名版本为准，见RankingEpochService
  */
 @Service
 @Slf4j
@@ -29,12 +32,21 @@ public class HybridRankingService {
     private final UserOjMapper userOjMapper;
     private final AsyncRankingService asyncRankingService;
     private final CaffeineRankingCache caffeineRankingCache;
+    private final RankingEpochService rankingEpochService;
+    private final CacheInvalidationBroadcaster invalidationBroadcaster;
+    private final RankIndexService rankIndexService;
 
     public HybridRankingService(CaffeineRankingCache caffeineRankingCache,
                                 UserPlatformRankingMapper userPlatformRankingMapper,
                                 UserOjMapper userOjMapper,
-                                AsyncRankingService asyncRankingService) {
+                                AsyncRankingService asyncRankingService,
+                                RankingEpochService rankingEpochService,
+                                CacheInvalidationBroadcaster invalidationBroadcaster,
+                                RankIndexService rankIndexService) {
         this.caffeineRankingCache = caffeineRankingCache;
+        this.rankingEpochService = rankingEpochService;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        this.rankIndexService = rankIndexService;
         this.rankingMapper = userPlatformRankingMapper;
         this.userOjMapper = userOjMapper;
         this.asyncRankingService = asyncRankingService;
@@ -62,7 +74,7 @@ public class HybridRankingService {
             return result;
         }
 
-        // L3: 缓存都失效，实时计算排名
+        // L3: 缓存都失效，由内存排名索引实时计算
         log.info("缓存未命中，实时计算排名 - 用户{}平台{}", userId, platformId);
         UserPlatformRankingVo result = calculateRankingRealTime(platformId, userId);
 
@@ -77,15 +89,31 @@ public class HybridRankingService {
 
     /**
      * 刷新目标user_platform_ranking表的表项
+     * L2写入完成后广播失效，其他节点（以及本节点）下次读取时从L2取得新排名
      */
     public UserPlatformRankingVo refreshPlatformRanking(String platformId, Long userId) {
         // L2缓存，L1缓存更新
         UserPlatformRankingVo userPlatformRankingVo = calculateRankingRealTime(platformId, userId);
-        asyncRankingService.updateSingleUserRankingAsync(platformId, userId, userPlatformRankingVo);
+        asyncRankingService.updateSingleUserRankingAsync(platformId, userId, userPlatformRankingVo)
+                .whenComplete((ignored, e) -> invalidationBroadcaster.publish(
+                        CacheInvalidationEvent.platformRanking(platformId, userId)));
         caffeineRankingCache.putRanking(platformId, userId, userPlatformRankingVo);
         return userPlatformRankingVo;
     }
 
+    /**
+     * 启动预热：当前排名版本下有效的L2行直接放入L1
+     * @return 是否放入了缓存
+     */
+    public boolean warmUpRanking(UserPlatformRanking dbRanking) {
+        if (caffeineRankingCache.contains(dbRanking.getPlatformId(), dbRanking.getUserId())
+                || !isRankingCacheValid(dbRanking)) {
+            return false;
+        }
+        caffeineRankingCache.putRanking(dbRanking.getPlatformId(), dbRanking.getUserId(), convertToVo(dbRanking));
+        return true;
+    }
+
     private UserPlatformRankingVo convertToVo(UserPlatformRanking dbRanking) {
         return UserPlatformRankingVo.builder()
                 .platformId(dbRanking.getPlatformId())
@@ -101,26 +129,25 @@ public class HybridRankingService {
 
     /**
      * 判断排名缓存是否有效
-     * 策略：5分钟内的预计算结果认为有效
+     * 策略：由当前排名版本或之后写入的预计算结果认为有效
      */
     private boolean isRankingCacheValid(UserPlatformRanking ranking) {
-
-        LocalDateTime expireTime = ranking.getLastCalcTime().plusMinutes(5);
-        boolean valid = LocalDateTime.now().isBefore(expireTime);
+        OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(ranking.getPlatformId());
+        boolean valid = platform != null && rankingEpochService.isCurrent(platform, ranking.getLastCalcTime());
 
         if (!valid) {
-            log.debug("排名缓存已过期: {}, 过期时间: {}",
-                    ranking.getLastCalcTime(), expireTime);
+            log.debug("排名缓存已过期: {}, 当前版本: {}", ranking.getLastCalcTime(),
+                    platform == null ? null : rankingEpochService.current(platform).getCalcTime());
         }
 
         return valid;
     }
 
     /**
-     * 实时计算排名（降级方案）
+     * 实时计算排名：排名和总人数由内存排名索引给出，只读取用户自己的一行
      */
     private UserPlatformRankingVo calculateRankingRealTime(String platformId, Long userId) {
-        log.warn("执行实时排名计算，可能影响性能 - 用户{}平台{}", userId, platformId);
+        log.debug("执行实时排名计算 - 用户{}平台{}", userId, platformId);
 
         // 获取用户数据
         UserOj userOj = userOjMapper.findByUserId(userId);
@@ -140,10 +167,9 @@ public class HybridRankingService {
             throw new RuntimeException("用户未配置" + platform.getPlatformName() + "账号");
         }
 
-        // 计算排名（使用优化后的SQL）
-        Integer ranking = userOjMapper.calculateUserRanking(
-                platformId, userData.getAcCount(), userData.getSubmitCount());
-        Integer totalUsers = userOjMapper.getTotalUsersWithPlatformData(platformId);
+        // 计算排名（O(log n)，不扫描user_oj）
+        int ranking = rankIndexService.platformRank(platform, userData.getAcCount(), userData.getSubmitCount());
+        int totalUsers = rankIndexService.platformTotalUsers(platform);
 
         // 计算排名百分比
         double percentage = totalUsers > 0 ? (double) ranking / totalUsers * 100 : 0.0;
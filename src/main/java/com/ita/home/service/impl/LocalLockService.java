@@ -16,30 +16,30 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 @Slf4j
 public class LocalLockService {
 
-    private final Cache<String, String> lockCache;
+    private final Cache<Long, String> lockCache;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     @Autowired
-    public LocalLockService(@Qualifier("updateLockCache") Cache<String, String> lockCache) {
+    public LocalLockService(@Qualifier("updateLockCache") Cache<Long, String> lockCache) {
         this.lockCache = lockCache;
     }
 
     /**
-     * 尝试获取锁
-     * @param lockKey 锁的key
+     * 尝试获取用户的更新锁
+     * @param userId 用户id
      * @return 是否成功获取锁
      */
-    public boolean tryLock(String lockKey) {
+    public boolean tryLock(Long userId) {
         // 获取读写锁，以下逻辑同一时间只能有一个线程进行
         lock.writeLock().lock();
         try {
-            String existing = lockCache.getIfPresent(lockKey);
+            String existing = lockCache.getIfPresent(userId);
             if (existing == null) {
-                lockCache.put(lockKey, Thread.currentThread().getName());
-                log.debug("成功获取锁: {}", lockKey);
+                lockCache.put(userId, Thread.currentThread().getName());
+                log.debug("成功获取锁: userId={}", userId);
                 return true;
             }
-            log.debug("锁已被占用: {}, holder: {}", lockKey, existing);
+            log.debug("锁已被占用: userId={}, holder: {}", userId, existing);
             return false;
         } finally {
             lock.writeLock().unlock();
@@ -47,22 +47,15 @@ public class LocalLockService {
     }
 
     /**
-     * 释放锁
+     * 释放用户的更新锁
      */
-    public void releaseLock(String lockKey) {
+    public void releaseLock(Long userId) {
         lock.writeLock().lock();
         try {
-            lockCache.invalidate(lockKey);
-            log.debug("释放锁: {}", lockKey);
+            lockCache.invalidate(userId);
+            log.debug("释放锁: userId={}", userId);
         } finally {
             lock.writeLock().unlock();
         }
     }
-
-    /**
-     * 生成更新锁的key
-     */
-    public String getUpdateLockKey(Long userId) {
-        return "oj_update_lock:" + userId;
-    }
 }
@@ -0,0 +1,135 @@
+package com.ita.home.service.impl;
+
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.mapper.UserPlatformRankingMapper;
+import com.ita.home.model.entity.RankingEpoch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 平台排名快照版本（epoch）
+ * 每次全量排名计算完成后为该平台发布一个递增的版本，L1缓存条目记录写入时的版本号；
+ * 快照时间只在版本中记录一次，全量重算不改写未变化的行，也会删除不再参与排名的行，
+ * 因此版本发布后L2排名表中现存的行都有效；新版本整体替换旧版本，读取方不会看到中间状态。
+ * 版本号在ranking_epoch表中原子递增，各实例定期重新读取，其他实例发布的版本在一个刷新周期内生效
+ */
+@Service
+@Slf4j
+public class RankingEpochService {
+
+    /** 尚未发布过排名的平台使用的版本 */
+    private static final RankingEpoch NONE = RankingEpoch.builder().epochId(0L).build();
+
+    /** 平台尚未发布过版本时，L2行在计算后的这段时间内有效 */
+    private static final long FALLBACK_VALID_MINUTES = 5;
+
+    private final UserPlatformRankingMapper rankingMapper;
+
+    /** 下标为平台枚举序号 */
+    private final AtomicReferenceArray<RankingEpoch> epochs =
+            new AtomicReferenceArray<>(OjPlatformEnum.values().length);
+
+    private final ScheduledExecutorService refreshScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ranking-epoch-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ita.oj.ranking.epoch-refresh-seconds:30}")
+    private long epochRefreshSeconds;
+
+    public RankingEpochService(UserPlatformRankingMapper rankingMapper) {
+        this.rankingMapper = rankingMapper;
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            epochs.set(platform.ordinal(), NONE);
+        }
+    }
+
+    /**
+     * 启动时恢复各平台最近发布的版本，之后定期重新读取以获得其他实例发布的版本
+     */
+    @PostConstruct
+    public void start() {
+        loadEpochs();
+        refreshScheduler.scheduleWithFixedDelay(this::loadEpochs,
+                epochRefreshSeconds, epochRefreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+
+    /**
+     * 从ranking_epoch表读取各平台的版本，只接受比本地更新的版本
+     */
+    public void loadEpochs() {
+        try {
+            for (RankingEpoch epoch : rankingMapper.findAllEpochs()) {
+                OjPlatformEnum platform = OjPlatformEnum.getByPlatformId(epoch.getPlatformId());
+                if (platform != null) {
+                    advance(platform, epoch);
+                }
+            }
+        } catch (Exception e) {
+            log.error("加载排名快照版本失败，下次刷新重试", e);
+        }
+    }
+
+    private void advance(OjPlatformEnum platform, RankingEpoch epoch) {
+        epochs.accumulateAndGet(platform.ordinal(), epoch,
+                (current, loaded) -> loaded.getEpochId() > current.getEpochId() ? loaded : current);
+    }
+
+    /**
+     * 获取平台当前的排名版本
+     */
+    public RankingEpoch current(OjPlatformEnum platform) {
+        return epochs.get(platform.ordinal());
+    }
+
+    /**
+     * 发布平台的新排名版本，需在该次计算的所有排名写入L2之后调用
+     * @param calcTime 本次计算写入排名表的last_calc_time
+     */
+    public RankingEpoch publish(OjPlatformEnum platform, LocalDateTime calcTime) {
+        rankingMapper.incrementEpoch(platform.getPlatformId(), calcTime);
+        RankingEpoch next = rankingMapper.findEpoch(platform.getPlatformId());
+        advance(platform, next);
+        log.info("平台 {} 发布排名版本 {}", platform.getPlatformName(), next.getEpochId());
+        return next;
+    }
+
+    /**
+     * 判断L2排名表中的行在当前版本下是否有效
+     * 平台发布过版本后现存的行都有效：last_calc_time不晚于快照时间的行由全量重算确认，晚于的为单用户刷新写入；
+     * 平台尚未发布过版本时按计算时间判断，5分钟内计算的行有效
+     */
+    public boolean isCurrent(OjPlatformEnum platform, LocalDateTime lastCalcTime) {
+        if (lastCalcTime == null) {
+            return false;
+        }
+        if (current(platform).getCalcTime() == null) {
+            return LocalDateTime.now().isBefore(lastCalcTime.plusMinutes(FALLBACK_VALID_MINUTES));
+        }
+        return true;
+    }
+
+    /**
+     * 该行是否属于当前快照：由全量重算写入或确认（last_calc_time不晚于快照时间），
+     * 其排名计入了快照中的所有用户，可以参与增量平移
+     */
+    public boolean isSnapshotRow(OjPlatformEnum platform, LocalDateTime lastCalcTime) {
+        LocalDateTime epochCalcTime = current(platform).getCalcTime();
+        return epochCalcTime != null && lastCalcTime != null && !lastCalcTime.isAfter(epochCalcTime);
+    }
+}
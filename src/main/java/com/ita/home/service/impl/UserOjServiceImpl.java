@@ -1,16 +1,27 @@
 package com.ita.home.service.impl;
 
 
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.ita.home.client.OjHuntClient;
+import com.ita.home.client.OjHuntFetchResult;
+import com.ita.home.client.PlatformCircuitBreaker;
+import com.ita.home.client.UpstreamPriority;
+import com.ita.home.config.OjCacheProperties;
+import com.ita.home.config.cache.CacheInvalidationBroadcaster;
+import com.ita.home.config.cache.OjPlatformDataCache;
+import com.ita.home.config.cache.PackedOjUserData;
+import com.ita.home.config.cache.RestoredAgeRegistry;
 import com.ita.home.enums.OjPlatformEnum;
 import com.ita.home.exception.BaseException;
 import com.ita.home.mapper.UserOjMapper;
 import com.ita.home.mapper.UserPlatformRankingMapper;
 import com.ita.home.model.dto.OjDataDto;
 import com.ita.home.model.dto.OjUserDataDto;
+import com.ita.home.model.dto.RankingCursor;
 import com.ita.home.model.dto.UserRankingDto;
 import com.ita.home.model.entity.UserOj;
 import com.ita.home.model.entity.UserPlatformRanking;
+import com.ita.home.model.event.CacheInvalidationEvent;
 import com.ita.home.model.req.RankingRequest;
 import com.ita.home.model.vo.OjUserDataVo;
 import com.ita.home.model.vo.RankingPageVo;
@@ -18,22 +29,33 @@ import com.ita.home.model.vo.UserPlatformRankingVo;
 import com.ita.home.model.vo.UserRankingVo;
 import com.ita.home.service.UserOjService;
 import com.ita.home.service.impl.async.AsyncOjUpdateService;
+import com.ita.home.service.impl.async.LastAccessTimeBuffer;
+import com.ita.home.service.impl.rank.RankIndexService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * 用户OJ平台账号服务实现类
@@ -42,38 +64,66 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class UserOjServiceImpl implements UserOjService {
 
+    /** 单个平台调用的整体截止时间（含对冲请求） */
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
 
     /** 线程池用于并行调用API */
     private final ExecutorService executorService;
     private final UserOjMapper userOjMapper;
-    private final RestTemplate restTemplate;
-    private final Cache<String, OjUserDataVo> ojDataCache;
+    private final OjHuntClient ojHuntClient;
+    private final PlatformCircuitBreaker circuitBreaker;
+    private final AsyncLoadingCache<Long, PackedOjUserData> ojDataCache;
+    private final OjPlatformDataCache ojPlatformDataCache;
+    private final OjCacheProperties cacheProperties;
     private final AsyncOjUpdateService asyncOjUpdateService;
+    private final LastAccessTimeBuffer lastAccessTimeBuffer;
     private final HybridRankingService hybridRankingService;
-    @Value("${ita.oj.cache.expire-hours}")
-    private Integer expireHours;
+    private final CacheInvalidationBroadcaster invalidationBroadcaster;
+    private final RankIndexService rankIndexService;
+    private final RestoredAgeRegistry restoredAgeRegistry;
+
+    /** 进行中的实时获取请求：key为userId，同一用户的并发调用共享同一个future */
+    private final ConcurrentHashMap<Long, InFlightFetch> inFlightRequests = new ConcurrentHashMap<>();
+
+    /** 被合并到进行中请求的调用次数，以指标 oj.fetch.coalesced 导出 */
+    private final LongAdder coalescedRequestCount = new LongAdder();
 
     @Autowired
     public UserOjServiceImpl(@Qualifier("ojApiExecutorService") ExecutorService executorService,
                              UserOjMapper userOjMapper,
-                             RestTemplate restTemplate,
-                             @Qualifier("ojDataCache") Cache<String, OjUserDataVo> ojDataCache,
+                             OjHuntClient ojHuntClient,
+                             PlatformCircuitBreaker circuitBreaker,
+                             @Qualifier("ojDataCache") AsyncLoadingCache<Long, PackedOjUserData> ojDataCache,
+                             OjPlatformDataCache ojPlatformDataCache,
+                             OjCacheProperties cacheProperties,
                              AsyncOjUpdateService asyncOjUpdateService,
-                             HybridRankingService hybridRankingService) {
+                             LastAccessTimeBuffer lastAccessTimeBuffer,
+                             HybridRankingService hybridRankingService,
+                             CacheInvalidationBroadcaster invalidationBroadcaster,
+                             RankIndexService rankIndexService,
+                             RestoredAgeRegistry restoredAgeRegistry,
+                             MeterRegistry meterRegistry) {
         this.executorService = executorService;
         this.userOjMapper = userOjMapper;
-        this.restTemplate = restTemplate;
+        this.ojHuntClient = ojHuntClient;
+        this.circuitBreaker = circuitBreaker;
         this.ojDataCache = ojDataCache;
+        this.ojPlatformDataCache = ojPlatformDataCache;
+        this.cacheProperties = cacheProperties;
         this.asyncOjUpdateService = asyncOjUpdateService;
+        this.lastAccessTimeBuffer = lastAccessTimeBuffer;
         this.hybridRankingService = hybridRankingService;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        this.rankIndexService = rankIndexService;
+        this.restoredAgeRegistry = restoredAgeRegistry;
+        FunctionCounter.builder("oj.fetch.coalesced", coalescedRequestCount, LongAdder::sum)
+                .description("合并到进行中实时请求的调用次数")
+                .register(meterRegistry);
     }
 
-    /** OJHunt API的基础URL */
-    @Value("${ita.oj.target}")
-    private String OJ_HUNT_API_BASE_URL;
-
     /**
      * 更新用户的oj账户
+     * 事务提交后广播失效，所有节点淘汰该用户按旧账号缓存的数据
      */
     @Override
     @Transactional
@@ -82,6 +132,11 @@ public class UserOjServiceImpl implements UserOjService {
             userOj.setUpdateTime(LocalDateTime.now());
             int result = userOjMapper.updateById(userOj);
             log.info("更新用户OJ账号成功: id={}", userOj.getId());
+            if (result > 0) {
+                // 绑定或解绑平台账号会改变该平台排名的成员
+                rankIndexService.index(userOj);
+                publishAfterCommit(CacheInvalidationEvent.ojData(userOj.getUserId()));
+            }
             return result > 0;
         } catch (Exception e) {
             log.error("更新用户OJ账号失败: id={}", userOj.getId(), e);
@@ -111,48 +166,22 @@ public class UserOjServiceImpl implements UserOjService {
 
     /**
      * 后续controller层获取oj信息均从这里获取
+     * 软过期后立即返回旧数据（stale=true）并在后台刷新，只有首次加载或超过硬过期时才会阻塞
      */
     @Override
     public OjUserDataVo getCacheOjUserDataVo(Long userId) {
         long startTime = System.nanoTime();
-        String cacheKey = "oj_data:" + userId;
 
         try {
-            // 1. 先检查Caffeine缓存
-            OjUserDataVo cachedData = ojDataCache.getIfPresent(cacheKey);
-            if (cachedData != null) {
-                log.info("用户{}命中Caffeine缓存", userId);
-                // 异步更新访问时间
-                asyncOjUpdateService.updateLastAccessTimeAsync(userId);
-                return cachedData;
-            }
-
-            // 2. 检查数据库缓存
-            UserOj userOj = userOjMapper.findByUserId(userId);
-            if (userOj == null) {
-                log.warn("用户{}的OJ账号信息不存在", userId);
-                return OjUserDataVo.builder()
-                        .ojDataDtoList(new ArrayList<>())
-                        .totalAc(0)
-                        .totalSubmit(0)
-                        .build();
+            // 缓存缺失时由OjDataCacheLoader加载：数据库缓存 -> 实时数据
+            PackedOjUserData cachedData = ojDataCache.get(userId).join();
+            if (cachedData == null) {
+                return emptyOjUserDataVo();
             }
 
-            // 3. 判断数据库缓存是否有效
-            if (isDatabaseCacheValid(userOj)) {
-                log.info("用户{}命中数据库缓存", userId);
-                // 构建VO并放入Caffeine缓存
-                OjUserDataVo dbCachedData = buildVoFromDatabase(userOj);
-                ojDataCache.put(cacheKey, dbCachedData);
-
-                // 异步更新访问时间
-                asyncOjUpdateService.updateLastAccessTimeAsync(userId);
-                return dbCachedData;
-            }
-
-            // 4. 缓存都无效，获取实时数据，方法内刷新数据库和缓存
-            log.info("用户{}缓存失效，获取实时数据", userId);
-            return getRealTimeOjUserDataVo(userOj.getUserId());
+            // 记录访问时间，由缓冲定时批量写回
+            lastAccessTimeBuffer.record(userId);
+            return cachedData.toVo(isStale(userId));
 
         } catch (Exception e) {
             log.error("获取用户{}OJ数据失败", userId, e);
@@ -169,9 +198,13 @@ public class UserOjServiceImpl implements UserOjService {
 
     /**
      * 获取排名页
+     * 请求带cursor时使用游标分页，否则按页码分页
      */
     @Override
     public RankingPageVo getUserRanking(RankingRequest request) {
+        if (request.getCursor() != null) {
+            return getUserRankingByCursor(request, RankingCursor.decode(request.getCursor()));
+        }
         try {
             int offset = (request.getPageNum() - 1) * request.getPageSize();
             int limit = request.getPageSize();
@@ -191,21 +224,7 @@ public class UserOjServiceImpl implements UserOjService {
             // 计算排名和构建VO
             List<UserRankingVo> rankings = new ArrayList<>();
             for (int i = 0; i < rankingDtos.size(); i++) {
-                UserRankingDto dto = rankingDtos.get(i);
-                int rank = offset + i + 1;
-
-                double acRate = dto.getTotalSubmit() > 0
-                        ? (dto.getTotalAc() * 100.0 / dto.getTotalSubmit()) : 0.0;
-
-                rankings.add(UserRankingVo.builder()
-                        .rank(rank)
-                        .userId(dto.getUserId())
-                        .username(dto.getName())
-                        .totalAc(dto.getTotalAc())
-                        .totalSubmit(dto.getTotalSubmit())
-                        .acRate(Math.round(acRate * 100.0) / 100.0)
-                        .lastUpdateTime(dto.getLastUpdateTime())
-                        .build());
+                rankings.add(toRankingVo(rankingDtos.get(i), offset + i + 1));
             }
 
             int totalPages = (int) Math.ceil((double) total / request.getPageSize());
@@ -226,6 +245,67 @@ public class UserOjServiceImpl implements UserOjService {
         }
     }
 
+    /**
+     * 游标分页获取排名页：先按成绩顺序取有AC记录的用户，取完后（非仅活跃模式）再按用户ID取没有AC记录的用户
+     * 每页多取一行判断是否还有下一页；排名来自内存排名索引，成绩相同并列，没有AC记录的用户并列在最后
+     */
+    private RankingPageVo getUserRankingByCursor(RankingRequest request, RankingCursor cursor) {
+        try {
+            int limit = request.getPageSize();
+            List<UserRankingDto> rankingDtos = new ArrayList<>();
+            if (cursor == null || !cursor.isInactiveSegment()) {
+                rankingDtos.addAll(userOjMapper.findActiveUserRankingsAfter(cursor, limit + 1));
+            }
+            if (!request.getOnlyActiveUsers() && rankingDtos.size() <= limit) {
+                long afterUserId = cursor != null && cursor.isInactiveSegment() ? cursor.getUserId() : 0L;
+                rankingDtos.addAll(userOjMapper.findInactiveUserRankingsAfter(afterUserId, limit + 1 - rankingDtos.size()));
+            }
+
+            boolean hasNext = rankingDtos.size() > limit;
+            if (hasNext) {
+                rankingDtos = rankingDtos.subList(0, limit);
+            }
+            List<UserRankingVo> rankings = new ArrayList<>();
+            for (UserRankingDto dto : rankingDtos) {
+                int rank = rankIndexService.totalRank(
+                        dto.getTotalAc() != null ? dto.getTotalAc() : 0,
+                        dto.getTotalSubmit() != null ? dto.getTotalSubmit() : 0);
+                rankings.add(toRankingVo(dto, rank));
+            }
+
+            long total = request.getOnlyActiveUsers()
+                    ? rankIndexService.totalRankedUsers() : userOjMapper.countAllUsers();
+            return RankingPageVo.builder()
+                    .rankings(rankings)
+                    .total(total)
+                    .pageSize(request.getPageSize())
+                    .totalPages((int) Math.ceil((double) total / request.getPageSize()))
+                    .hasNext(hasNext)
+                    .hasPrevious(cursor != null)
+                    .nextCursor(hasNext ? RankingCursor.after(rankingDtos.get(limit - 1)).encode() : null)
+                    .build();
+        } catch (Exception e) {
+            log.error("游标获取用户排名失败", e);
+            throw new BaseException("获取用户排名失败");
+        }
+    }
+
+    private UserRankingVo toRankingVo(UserRankingDto dto, int rank) {
+        int totalAc = dto.getTotalAc() != null ? dto.getTotalAc() : 0;
+        int totalSubmit = dto.getTotalSubmit() != null ? dto.getTotalSubmit() : 0;
+        double acRate = totalSubmit > 0 ? (totalAc * 100.0 / totalSubmit) : 0.0;
+
+        return UserRankingVo.builder()
+                .rank(rank)
+                .userId(dto.getUserId())
+                .username(dto.getName())
+                .totalAc(dto.getTotalAc())
+                .totalSubmit(dto.getTotalSubmit())
+                .acRate(Math.round(acRate * 100.0) / 100.0)
+                .lastUpdateTime(dto.getLastUpdateTime())
+                .build();
+    }
+
     /**
      * 获取具体用户排名
      */
@@ -240,8 +320,10 @@ public class UserOjServiceImpl implements UserOjService {
             double acRate = rankingDto.getTotalSubmit() != null && rankingDto.getTotalSubmit() > 0
                     ? (rankingDto.getTotalAc() * 100.0 / rankingDto.getTotalSubmit()) : 0.0;
 
-            // 计算排名
-            Integer rank = userOjMapper.countBetterUsers(rankingDto.getTotalAc(), rankingDto.getTotalSubmit()) + 1;
+            // 计算排名（内存排名索引，O(log n)）
+            int rank = rankIndexService.totalRank(
+                    rankingDto.getTotalAc() != null ? rankingDto.getTotalAc() : 0,
+                    rankingDto.getTotalSubmit() != null ? rankingDto.getTotalSubmit() : 0);
 
             return UserRankingVo.builder()
                     .rank(rank)
@@ -259,11 +341,119 @@ public class UserOjServiceImpl implements UserOjService {
     }
 
     /**
-     * 绕过了缓存，仅限内部特殊业务调用外部禁止调用，直接获取实时Oj信息。
-     * 并且刷新了缓存和数据库
+     * 绕过了汇总缓存，仅限内部特殊业务调用外部禁止调用，直接获取实时Oj信息。
+     * 只有超过平台新鲜期的平台才会调用上游，并且刷新了缓存和数据库
+     * 同一用户的并发调用只会发起一次上游请求，其余调用等待并共享该次结果
      */
     @Override
     public OjUserDataVo getRealTimeOjUserDataVo(Long userId) {
+        return getRealTimeOjUserDataVo(userId, UpstreamPriority.INTERACTIVE);
+    }
+
+    /**
+     * 按指定优先级获取实时Oj信息，同一用户的并发调用共享同一次上游请求
+     */
+    @Override
+    public OjUserDataVo getRealTimeOjUserDataVo(Long userId, UpstreamPriority priority) {
+        try {
+            OjUserDataVo result = fetchCoalesced(userId, priority);
+            if (result == null) {
+                return emptyOjUserDataVo();
+            }
+            ojDataCache.synchronous().put(userId, PackedOjUserData.from(result));
+            return result;
+        } catch (Exception e) {
+            log.error("获取用户{}OJ数据汇总失败", userId, e);
+            return emptyOjUserDataVo();
+        }
+    }
+
+    /**
+     * 供ojDataCache加载器调用，不读写Caffeine缓存
+     * 首次加载时优先使用有效的数据库缓存；后台刷新时直接获取实时数据，失败时抛出异常以保留旧值
+     */
+    @Override
+    public OjUserDataVo loadOjUserDataVo(Long userId, boolean refresh) {
+        if (refresh) {
+            log.info("用户{}缓存软过期，后台刷新", userId);
+            return fetchCoalesced(userId, UpstreamPriority.BACKGROUND);
+        }
+
+        UserOj userOj = userOjMapper.findByUserId(userId);
+        if (userOj == null) {
+            log.warn("用户{}的OJ账号信息不存在", userId);
+            return null;
+        }
+        if (isDatabaseCacheValid(userOj)) {
+            log.info("用户{}命中数据库缓存", userId);
+            return buildVoFromDatabase(userOj);
+        }
+        log.info("用户{}缓存失效，获取实时数据", userId);
+        return fetchCoalesced(userId, UpstreamPriority.INTERACTIVE);
+    }
+
+    /**
+     * 获取实时Oj信息，同一用户的并发调用只发起一次上游请求
+     * @return 用户未绑定任何OJ账号时返回null
+     */
+    private OjUserDataVo fetchCoalesced(Long userId, UpstreamPriority priority) {
+        CompletableFuture<OjUserDataVo> future = new CompletableFuture<>();
+        InFlightFetch fetch = new InFlightFetch(priority, future);
+        InFlightFetch inFlight = inFlightRequests.putIfAbsent(userId, fetch);
+        if (inFlight != null) {
+            if (inFlight.priority() == UpstreamPriority.INTERACTIVE || priority == UpstreamPriority.BACKGROUND) {
+                // 已有相同用户的请求在进行中，直接复用其结果
+                coalescedRequestCount.increment();
+                log.info("用户{}已有进行中的实时请求，合并本次调用", userId);
+                return inFlight.future().join();
+            }
+            // 后台请求可能在限流中等待很久，交互请求不跟随它，自己发起并接替为该用户进行中的请求
+            inFlightRequests.replace(userId, inFlight, fetch);
+        }
+
+        try {
+            OjUserDataVo result = fetchRealTimeOjUserDataVo(userId, priority);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRequests.remove(userId, fetch);
+        }
+    }
+
+    /**
+     * 进行中的实时获取请求及其优先级
+     */
+    private record InFlightFetch(UpstreamPriority priority, CompletableFuture<OjUserDataVo> future) {
+    }
+
+    /**
+     * 启动预热：数据库缓存有效时放入ojDataCache，过期的用户留给首次访问时加载；已由缓存快照恢复的用户跳过
+     */
+    @Override
+    public boolean warmUpOjUserData(UserOj userOj) {
+        if (ojDataCache.synchronous().asMap().containsKey(userOj.getUserId()) || !isDatabaseCacheValid(userOj)) {
+            return false;
+        }
+        ojDataCache.synchronous().put(userOj.getUserId(), PackedOjUserData.from(buildVoFromDatabase(userOj)));
+        return true;
+    }
+
+    /**
+     * 获取被合并的实时请求次数
+     */
+    @Override
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.sum();
+    }
+
+    /**
+     * 并行调用已过新鲜期的平台API获取实时数据，由各平台数据重新拼出汇总，并刷新数据库
+     * @return 用户未绑定任何OJ账号时返回null
+     */
+    private OjUserDataVo fetchRealTimeOjUserDataVo(Long userId, UpstreamPriority priority) {
         // 记录方法开始时间
         long startTime = System.nanoTime();
         
@@ -272,11 +462,7 @@ public class UserOjServiceImpl implements UserOjService {
             UserOj userOj = userOjMapper.findByUserId(userId);
             if (userOj == null) {
                 log.warn("用户{}的OJ账号信息不存在", userId);
-                return OjUserDataVo.builder()
-                        .ojDataDtoList(new ArrayList<>())
-                        .totalAc(0)
-                        .totalSubmit(0)
-                        .build();
+                return null;
             }
 
             // 定义平台信息：平台代码 -> 用户名
@@ -284,68 +470,114 @@ public class UserOjServiceImpl implements UserOjService {
             
             if (platformUserMap.isEmpty()) {
                 log.warn("用户{}没有配置任何OJ平台账号", userId);
-
-                return OjUserDataVo.builder()
-                        .ojDataDtoList(new ArrayList<>())
-                        .totalAc(0)
-                        .totalSubmit(0)
-                        .build();
+                return null;
             }
 
-            // 创建并行任务列表
-            List<CompletableFuture<OjUserDataDto>> futures = new ArrayList<>();
+            // 仍在新鲜期内的平台直接使用平台缓存，只为过期的平台创建并行任务，熔断中的平台不发起请求
+            Map<OjPlatformEnum, OjPlatformDataCache.Entry> cachedEntries = new EnumMap<>(OjPlatformEnum.class);
+            Map<OjPlatformEnum, OjDataDto> freshData = new EnumMap<>(OjPlatformEnum.class);
+            Map<OjPlatformEnum, CompletableFuture<OjHuntFetchResult>> futures = new EnumMap<>(OjPlatformEnum.class);
             
             // 为每个平台创建异步任务
             for (Map.Entry<String, String> entry : platformUserMap.entrySet()) {
                 String platformCode = entry.getKey();
                 String username = entry.getValue();
+                OjPlatformEnum platform = OjPlatformEnum.getByPlatformCode(platformCode);
+
+                OjPlatformDataCache.Entry cached = ojPlatformDataCache.get(platform, userId);
+                if (cached != null) {
+                    cachedEntries.put(platform, cached);
+                    if (ojPlatformDataCache.isFresh(platform, cached)) {
+                        log.info("平台{}数据仍在新鲜期内，用户{}跳过上游调用", platformCode, userId);
+                        freshData.put(platform, cached.getData());
+                        continue;
+                    }
+                }
+
+                if (circuitBreaker.isOpen(platform)) {
+                    log.info("平台{}熔断中，用户{}直接使用数据库数据", platformCode, userId);
+                    futures.put(platform, CompletableFuture.completedFuture(null));
+                    continue;
+                }
                 
-                CompletableFuture<OjUserDataDto> future = CompletableFuture.supplyAsync(() -> {
-                    return fetchSinglePlatformData(platformCode, username);
+                // 舱壁和连接许可的短暂等待在线程池中进行；限流等待令牌和请求本身都是异步的，超时后会取消底层交换而不是占着线程
+                CompletableFuture<OjHuntFetchResult> future = CompletableFuture.supplyAsync(() -> {
+                    log.info("并行调用OJHunt API: {} - {}", platformCode, username);
+                    return ojHuntClient.fetchAsync(platform, username, priority, FETCH_TIMEOUT);
                 }, executorService)
-                .orTimeout(10, TimeUnit.SECONDS)
+                .thenCompose(Function.identity())
+                .thenApply(fetchResult -> checkSinglePlatformData(platform, username, fetchResult))
                 .exceptionally(throwable -> {
                     log.error("平台{}数据获取失败（超时或异常），用户名：{}", platformCode, username, throwable);
                     return null; // 超时/异常时返回null，不影响其他任务
                 });
                 
-                futures.add(future);
+                futures.put(platform, future);
             }
 
             // 等待所有任务完成
             CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                    futures.toArray(new CompletableFuture[0])
+                    futures.values().toArray(new CompletableFuture[0])
             );
 
             // 获取所有结果并汇总
             List<OjDataDto> ojDataDtos = new ArrayList<>();
             int totalAc = 0;
             int totalSubmit = 0;
+            // 有平台数据发生变化时写回数据库；只确认了"未变化"时只需刷新缓存时间
+            boolean changed = false;
+            boolean verified = false;
 
             allFutures.join(); // 等待所有任务完成
 
-            for (CompletableFuture<OjUserDataDto> future : futures) {
-                try {
-                    OjUserDataDto result = future.get();
-                    if (result != null && Boolean.FALSE.equals(result.getError()) && result.getData() != null) {
-                        OjUserDataDto.UserData data = result.getData();
-
-                        OjDataDto ojDataDto = OjDataDto.builder()
-                                .name(data.getOjName())
-                                .solved(data.getSolved())
-                                .submitted(data.getSubmissions())
-                                .build();
-                        ojDataDtos.add(ojDataDto);
-
-                        if (data.getSolved() != null) {
-                            totalAc += data.getSolved();
-                        }
-                        if (data.getSubmissions() != null) {
-                            totalSubmit += data.getSubmissions();
+            for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+                OjDataDto ojDataDto = freshData.get(platform);
+                CompletableFuture<OjHuntFetchResult> future = futures.get(platform);
+                if (ojDataDto == null && future == null) {
+                    continue;
+                }
+                if (ojDataDto == null) {
+                    OjPlatformDataCache.Entry cached = cachedEntries.get(platform);
+                    try {
+                        OjHuntFetchResult result = future.get();
+                        if (result != null && !result.isModified()) {
+                            // 上游数据未变化，使用与校验信息一起保存的上次响应数据并重新计时；
+                            // 校验信息按(平台, 用户名)保存，上次写库失败时数据库中仍是旧值，此时需要重新写回
+                            OjUserDataDto.UserData data = result.getData().getData();
+                            ojDataDto = OjDataDto.builder()
+                                    .name(platform.getPlatformId())
+                                    .solved(data.getSolved())
+                                    .submitted(data.getSubmissions())
+                                    .build();
+                            ojPlatformDataCache.put(platform, userId, ojDataDto);
+                            changed |= !sameCounts(ojDataDto, buildDatabaseOjData(userOj, platform));
+                            verified = true;
+                        } else if (result != null) {
+                            OjUserDataDto.UserData data = result.getData().getData();
+
+                            ojDataDto = OjDataDto.builder()
+                                    .name(data.getOjName())
+                                    .solved(data.getSolved())
+                                    .submitted(data.getSubmissions())
+                                    .build();
+                            ojPlatformDataCache.put(platform, userId, ojDataDto);
+                            changed = true;
+                        } else {
+                            // 熔断或获取失败时复用该平台最近一次成功的数据，避免总数缺失该平台
+                            ojDataDto = lastGoodOjData(userOj, platform, cached);
                         }
+                    } catch (Exception e) {
+                        log.error("获取异步任务结果失败", e);
+                        ojDataDto = lastGoodOjData(userOj, platform, cached);
                     }
-                } catch (Exception e) {
-                    log.error("获取异步任务结果失败", e);
+                }
+
+                ojDataDtos.add(ojDataDto);
+                if (ojDataDto.getSolved() != null) {
+                    totalAc += ojDataDto.getSolved();
+                }
+                if (ojDataDto.getSubmitted() != null) {
+                    totalSubmit += ojDataDto.getSubmitted();
                 }
             }
             long endTime = System.nanoTime();
@@ -355,50 +587,68 @@ public class UserOjServiceImpl implements UserOjService {
                     .ojDataDtoList(ojDataDtos)
                     .totalAc(totalAc)
                     .totalSubmit(totalSubmit)
+                    .fetchTime(LocalDateTime.now())
+                    .stale(false)
                     .build();
-            // 异步更新数据库和缓存
-            asyncOjUpdateService.updateUserOjDataAsync(ojUserDataVo, userId);
-            String cacheKey = "oj_data:" + userId;
-            ojDataCache.put(cacheKey, ojUserDataVo);
+            // 异步更新数据库和缓存，数据未变化时只刷新缓存时间
+            if (changed) {
+                asyncOjUpdateService.updateUserOjDataAsync(ojUserDataVo, userId);
+            } else if (verified) {
+                log.info("用户{}各平台数据均未变化，仅刷新缓存时间", userId);
+                asyncOjUpdateService.updateCacheTimeAsync(userId);
+            }
             return ojUserDataVo;
 
         } catch (Exception e) {
             log.error("获取用户{}OJ数据汇总失败", userId, e);
-            return OjUserDataVo.builder()
-                    .ojDataDtoList(new ArrayList<>())
-                    .totalAc(0)
-                    .totalSubmit(0)
-                    .build();
+            throw new BaseException("获取用户OJ数据汇总失败");
         }
     }
 
     /**
-     * 获取单个平台的数据（异步调用）
+     * 校验单个平台的调用结果
+     * @return 获取结果，上游数据未变化时modified为false；返回错误或无数据时返回null
      */
-    private OjUserDataDto fetchSinglePlatformData(String platformCode, String username) {
-        try {
-            // 构建API URL
-            String apiUrl = String.format("%s/%s/%s", OJ_HUNT_API_BASE_URL, platformCode, username);
-            log.info("并行调用OJHunt API: {} - {}", platformCode, apiUrl);
-
-            // 调用外部API
-            OjUserDataDto response = restTemplate.getForObject(apiUrl, OjUserDataDto.class);
-
-            if (response != null && Boolean.FALSE.equals(response.getError()) && response.getData() != null) {
-                OjUserDataDto.UserData data = response.getData();
-                log.info("成功获取{}平台数据: user={}, solved={}, submissions={}",
-                        platformCode, username, data.getSolved(), data.getSubmissions());
-                response.getData().setOjName(OjPlatformEnum.getByPlatformCode(platformCode).getPlatformId());
-                return response;
-            } else {
-                log.warn("{}平台API返回错误或无数据: user={}", platformCode, username);
-                return null;
-            }
+    private static OjHuntFetchResult checkSinglePlatformData(OjPlatformEnum platform, String username,
+                                                             OjHuntFetchResult fetchResult) {
+        String platformCode = platform.getPlatformCode();
+        if (!fetchResult.isModified()) {
+            log.info("{}平台数据未变化: user={}", platformCode, username);
+            return fetchResult;
+        }
 
-        } catch (Exception e) {
-            log.error("调用{}平台API失败: user={}", platformCode, username, e);
-            return null;
+        OjUserDataDto response = fetchResult.getData();
+        if (response != null && Boolean.FALSE.equals(response.getError()) && response.getData() != null) {
+            OjUserDataDto.UserData data = response.getData();
+            log.info("成功获取{}平台数据: user={}, solved={}, submissions={}",
+                    platformCode, username, data.getSolved(), data.getSubmissions());
+            data.setOjName(platform.getPlatformId());
+            return fetchResult;
         }
+        log.warn("{}平台API返回错误或无数据: user={}", platformCode, username);
+        return null;
+    }
+
+    /**
+     * 获取某平台最近一次成功的数据：优先使用平台缓存（即使已过新鲜期），没有时使用数据库中的值
+     */
+    private static OjDataDto lastGoodOjData(UserOj userOj, OjPlatformEnum platform, OjPlatformDataCache.Entry cached) {
+        return cached != null ? cached.getData() : buildDatabaseOjData(userOj, platform);
+    }
+
+    private static boolean sameCounts(OjDataDto a, OjDataDto b) {
+        return Objects.equals(a.getSolved(), b.getSolved()) && Objects.equals(a.getSubmitted(), b.getSubmitted());
+    }
+
+    /**
+     * 使用数据库中保存的平台数据构建OjDataDto
+     */
+    private static OjDataDto buildDatabaseOjData(UserOj userOj, OjPlatformEnum platform) {
+        return OjDataDto.builder()
+                .name(platform.getPlatformId())
+                .solved(platform.getAcNum(userOj))
+                .submitted(platform.getSubmitNum(userOj))
+                .build();
     }
 
     private static Map<String, String> getPlatformValue(UserOj userOj) {
@@ -442,8 +692,9 @@ public class UserOjServiceImpl implements UserOjService {
             return false;
         }
 
+        // 数据库只记录汇总的缓存时间，按最短的平台新鲜期判断，避免高频平台被长期跳过
         LocalDateTime expireTime = userOj.getCacheTime()
-                .plusHours(expireHours);
+                .plus(cacheProperties.getMinPlatformTtl());
         return LocalDateTime.now().isBefore(expireTime);
     }
 
@@ -493,6 +744,51 @@ public class UserOjServiceImpl implements UserOjService {
                 .ojDataDtoList(ojDataDtoList)
                 .totalAc(userOj.getTotalAcNum())
                 .totalSubmit(userOj.getTotalCommitNum())
+                .fetchTime(userOj.getCacheTime())
+                .stale(false)
+                .build();
+    }
+
+    /**
+     * 根据缓存条目的写入时长判断数据是否已软过期（后台正在刷新），从快照恢复的条目加上恢复前已有的年龄
+     */
+    private boolean isStale(Long userId) {
+        long softTtlNanos = cacheProperties.getMinPlatformTtl().toNanos();
+        OptionalLong cacheAge = ojDataCache.synchronous().policy().refreshAfterWrite()
+                .map(refresh -> refresh.ageOf(userId, TimeUnit.NANOSECONDS))
+                .orElse(OptionalLong.empty());
+        if (cacheAge.isEmpty()) {
+            return false;
+        }
+        long age = cacheAge.getAsLong() + restoredAgeRegistry.restoredAgeNanos(userId, cacheAge.getAsLong());
+        if (age >= softTtlNanos && cacheAge.getAsLong() < softTtlNanos) {
+            // 从快照恢复的条目按真实年龄已过软过期，Caffeine按恢复时间计时不会刷新，这里主动触发
+            ojDataCache.synchronous().refresh(userId);
+        }
+        return age >= softTtlNanos;
+    }
+
+    /**
+     * 在当前事务提交后发布失效事件，避免其他节点在提交前重新加载到旧数据；不在事务中时立即发布
+     */
+    private void publishAfterCommit(CacheInvalidationEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidationBroadcaster.publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidationBroadcaster.publish(event);
+            }
+        });
+    }
+
+    private static OjUserDataVo emptyOjUserDataVo() {
+        return OjUserDataVo.builder()
+                .ojDataDtoList(new ArrayList<>())
+                .totalAc(0)
+                .totalSubmit(0)
                 .build();
     }
 
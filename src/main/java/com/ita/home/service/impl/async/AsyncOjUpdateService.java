@@ -1,10 +1,13 @@
 package com.ita.home.service.impl.async;
 
+import com.ita.home.enums.OjPlatformEnum;
 import com.ita.home.mapper.UserOjMapper;
 import com.ita.home.model.dto.OjDataDto;
 import com.ita.home.model.entity.UserOj;
 import com.ita.home.model.vo.OjUserDataVo;
 import com.ita.home.service.impl.LocalLockService;
+import com.ita.home.service.impl.rank.RankIndexService;
+import com.ita.home.service.impl.rank.RankingMaintenanceService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
@@ -23,13 +26,19 @@ public class AsyncOjUpdateService {
 
     private final UserOjMapper userOjMapper;
     private final LocalLockService localLockService;
+    private final RankIndexService rankIndexService;
+    private final RankingMaintenanceService rankingMaintenanceService;
 
 
     @Autowired
     public AsyncOjUpdateService(UserOjMapper userOjMapper,
-                                LocalLockService localLockService){
+                                LocalLockService localLockService,
+                                RankIndexService rankIndexService,
+                                RankingMaintenanceService rankingMaintenanceService){
         this.userOjMapper = userOjMapper;
         this.localLockService = localLockService;
+        this.rankIndexService = rankIndexService;
+        this.rankingMaintenanceService = rankingMaintenanceService;
     }
 
     /**
@@ -37,17 +46,15 @@ public class AsyncOjUpdateService {
      */
     @Async("ojApiExecutorService")
     public CompletableFuture<Boolean> updateUserOjDataAsync(OjUserDataVo ojDataVo, Long userId) {
-        String lockKey = localLockService.getUpdateLockKey(userId);
-
         // 尝试获取锁，防止重复更新
-        if (!localLockService.tryLock(lockKey)) {
+        if (!localLockService.tryLock(userId)) {
             log.info("用户{}正在更新中，跳过本次更新", userId);
             return CompletableFuture.completedFuture(false);
         }
         try {
             return updateUserOjDataWithRetry(ojDataVo, userId);
         } finally {
-            localLockService.releaseLock(lockKey);
+            localLockService.releaseLock(userId);
         }
     }
 
@@ -65,7 +72,7 @@ public class AsyncOjUpdateService {
                         return false;
                     }
                     // 2. 更新数据库
-                    return updateDatabase(userId, realTimeData);
+                    return updateDatabase(userId, userOj, realTimeData);
                 } catch (Exception e) {
                     log.error("用户{}数据更新失败，第{}次重试", userId, i + 1, e);
                     if (i < 3 - 1) {
@@ -85,8 +92,9 @@ public class AsyncOjUpdateService {
 
     /**
      * 更新数据库
+     * @param previous 写库前的用户OJ记录，用于得出各平台成绩的旧值
      */
-    private boolean updateDatabase(Long userId, OjUserDataVo data) {
+    private boolean updateDatabase(Long userId, UserOj previous, OjUserDataVo data) {
         try {
             LocalDateTime now = LocalDateTime.now();
 
@@ -147,6 +155,16 @@ public class AsyncOjUpdateService {
                     now,  // lastAccessTime
                     now   // updateTime
             );
+            if (result > 0) {
+                // 按各平台成绩的新旧值同步更新内存排名索引，并增量维护排名表
+                onScoreChanged(OjPlatformEnum.LUOGU, userId, previous, luoguAcNum, luoguSubmitNum);
+                onScoreChanged(OjPlatformEnum.LEETCODE_CN, userId, previous, leetcodeAcNum, leetcodeSubmitNum);
+                onScoreChanged(OjPlatformEnum.NOWCODER, userId, previous, nowcoderAcNum, nowcoderSubmitNum);
+                onScoreChanged(OjPlatformEnum.CODEFORCES, userId, previous, codeforceAcNum, codeforceSubmitNum);
+                rankIndexService.updateTotal(userId,
+                        data.getTotalAc() != null ? data.getTotalAc() : 0,
+                        data.getTotalSubmit() != null ? data.getTotalSubmit() : 0);
+            }
             return result > 0;
         } catch (Exception e) {
             log.error("更新用户{}数据库失败", userId, e);
@@ -154,19 +172,20 @@ public class AsyncOjUpdateService {
         }
     }
 
+    private void onScoreChanged(OjPlatformEnum platform, Long userId, UserOj previous, int acNum, int submitNum) {
+        rankingMaintenanceService.onScoreChanged(platform, userId,
+                platform.getAcNum(previous), platform.getSubmitNum(previous), acNum, submitNum);
+    }
+
     /**
-     * 仅更新访问时间
+     * 上游数据未变化时仅刷新数据库缓存时间，不重写各平台数据
      */
     @Async("ojApiExecutorService")
-    public void updateLastAccessTimeAsync(Long userId) {
+    public void updateCacheTimeAsync(Long userId) {
         try {
-            userOjMapper.updateLastAccessTime(userId, LocalDateTime.now());
+            userOjMapper.updateCacheTime(userId, LocalDateTime.now());
         } catch (Exception e) {
-            log.error("更新用户{}访问时间失败", userId, e);
+            log.error("更新用户{}缓存时间失败", userId, e);
         }
     }
-
-    private String getCacheKey(Long userId) {
-        return "oj_data:" + userId;
-    }
 }
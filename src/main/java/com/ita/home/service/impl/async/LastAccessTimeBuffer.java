@@ -0,0 +1,116 @@
+package com.ita.home.service.impl.async;
+
+import com.ita.home.mapper.UserOjMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 访问时间写缓冲
+ * 每次访问只在内存中记录用户最近的访问时间，定时合并为多行UPDATE写回user_oj，
+ * 同一用户在一个刷新周期内的多次访问只产生一次写入；应用关闭前会把剩余数据全部写回
+ */
+@Component
+@Slf4j
+public class LastAccessTimeBuffer {
+
+    private final UserOjMapper userOjMapper;
+
+    /** 待写回的访问时间：key为userId，value为最近访问时间 */
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "access-time-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ita.oj.access-time.flush-interval-seconds:10}")
+    private long flushIntervalSeconds;
+
+    @Value("${ita.oj.access-time.batch-size:500}")
+    private int batchSize;
+
+    public LastAccessTimeBuffer(UserOjMapper userOjMapper) {
+        this.userOjMapper = userOjMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        flushScheduler.scheduleWithFixedDelay(this::flush,
+                flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 记录一次访问，只覆盖内存中的时间，不访问数据库
+     */
+    public void record(Long userId) {
+        pending.put(userId, LocalDateTime.now());
+    }
+
+    /**
+     * 把缓冲中的访问时间分批写回数据库
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDateTime> batch = new LinkedHashMap<>();
+        Map<Long, LocalDateTime> failed = new HashMap<>();
+        int flushed = 0;
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            // 只移除快照中的值，写回期间的新访问保留到下一轮
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            if (batch.size() >= batchSize) {
+                flushed += writeBatch(batch, failed);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushed += writeBatch(batch, failed);
+        }
+        // 遍历结束后再放回失败的记录，避免本轮遍历再次读到它们而反复重试；放回时不覆盖期间产生的更新的访问时间
+        failed.forEach((userId, time) -> pending.merge(userId, time, (existing, failedTime) -> existing));
+        log.debug("批量写回访问时间: {}条，失败{}条", flushed, failed.size());
+    }
+
+    /**
+     * 写回一批记录，失败时把这批记录加入failed，由调用方在遍历结束后放回缓冲
+     */
+    private int writeBatch(Map<Long, LocalDateTime> batch, Map<Long, LocalDateTime> failed) {
+        int size = batch.size();
+        try {
+            userOjMapper.batchUpdateLastAccessTime(batch);
+        } catch (Exception e) {
+            log.error("批量更新访问时间失败，{}条记录放回缓冲等待下次写回", size, e);
+            failed.putAll(batch);
+            size = 0;
+        }
+        batch.clear();
+        return size;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(flushIntervalSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("访问时间缓冲已关闭，剩余记录已写回");
+    }
+}
@@ -0,0 +1,212 @@
+package com.ita.home.service.impl.rank;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 排名索引：可按位置计数的跳表（order-statistic skip list），排序键为(AC数降序, 提交数升序)
+ * 相同成绩的用户合并到同一个节点并记录人数，每层指针记录跨过的人数，
+ * 查询"成绩严格更好的人数"、插入、删除都是O(log n)。线程安全：查询共享读锁，更新独占写锁
+ */
+public class RankIndex {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head = new Node(Long.MIN_VALUE, MAX_LEVEL);
+    /** 每个用户当前的排序键，用于更新时删除旧成绩 */
+    private final Map<Long, Long> userKeys = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int level = 1;
+    /** 索引中的总人数 */
+    private int size;
+
+    /**
+     * 排序键：键越小成绩越好，AC数多的在前，AC数相同时提交数少的在前
+     */
+    static long key(int acCount, int submitCount) {
+        return ((long) (Integer.MAX_VALUE - Math.max(acCount, 0)) << 32) | Math.max(submitCount, 0);
+    }
+
+    /**
+     * 加入或更新用户的成绩
+     */
+    public void put(long userId, int acCount, int submitCount) {
+        long key = key(acCount, submitCount);
+        lock.writeLock().lock();
+        try {
+            Long old = userKeys.put(userId, key);
+            if (old != null) {
+                if (old == key) {
+                    return;
+                }
+                removeKey(old);
+            }
+            insertKey(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移出用户，用户不在索引中时无操作
+     */
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Long old = userKeys.remove(userId);
+            if (old != null) {
+                removeKey(old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(long userId) {
+        lock.readLock().lock();
+        try {
+            return userKeys.containsKey(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 该成绩的排名：成绩严格更好的人数 + 1，成绩相同的用户并列
+     */
+    public int rank(int acCount, int submitCount) {
+        long key = key(acCount, submitCount);
+        lock.readLock().lock();
+        try {
+            int better = 0;
+            Node x = head;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.next[i] != null && x.next[i].key < key) {
+                    better += x.span[i];
+                    x = x.next[i];
+                }
+            }
+            return better + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * span[i]为从该节点（不含）沿第i层指针到下一个节点（含）之间的人数；下一个节点为null时为到表尾的人数
+     */
+    private void insertKey(long key) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && x.next[i].key < key) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        size++;
+
+        Node existing = x.next[0];
+        if (existing != null && existing.key == key) {
+            // 成绩相同的用户只增加节点人数，所有覆盖该节点的指针跨度加一
+            existing.count++;
+            for (int i = 0; i < level; i++) {
+                update[i].span[i]++;
+            }
+            return;
+        }
+
+        int height = randomLevel();
+        if (height > level) {
+            for (int i = level; i < height; i++) {
+                update[i] = head;
+                rank[i] = 0;
+                head.next[i] = null;
+                head.span[i] = size - 1;
+            }
+            level = height;
+        }
+        Node node = new Node(key, height);
+        for (int i = 0; i < height; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = height; i < level; i++) {
+            update[i].span[i]++;
+        }
+    }
+
+    private void removeKey(long key) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].key < key) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        if (target == null || target.key != key) {
+            throw new IllegalStateException("排名索引中不存在该成绩: " + key);
+        }
+        size--;
+
+        if (target.count > 1) {
+            target.count--;
+            for (int i = 0; i < level; i++) {
+                update[i].span[i]--;
+            }
+            return;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    private static int randomLevel() {
+        int height = 1;
+        while (height < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            height++;
+        }
+        return height;
+    }
+
+    private static final class Node {
+        final long key;
+        /** 该成绩的人数 */
+        int count = 1;
+        final Node[] next;
+        final int[] span;
+
+        Node(long key, int height) {
+            this.key = key;
+            this.next = new Node[height];
+            this.span = new int[height];
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ita.home.service.impl.rank;
+
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.mapper.UserOjMapper;
+import com.ita.home.model.entity.UserOj;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存排名引擎：每个平台一个RankIndex（成员为绑定了该平台账号的用户），另有一个总榜RankIndex（成员为总AC数大于0的用户）
+ * 排名、总人数、百分比均为O(log n)，取代按平台CASE条件全表COUNT的实时排名SQL。
+ * 启动时从user_oj全量构建；数据库写入用户数据或账号后同步做单点更新；
+ * 定期全量重建并整体替换，用于收敛其他实例写入的变化
+ */
+@Service
+@Slf4j
+public class RankIndexService {
+
+    private final UserOjMapper userOjMapper;
+
+    /** 当前使用的索引，重建时整体替换 */
+    private volatile Indexes indexes = new Indexes();
+
+    private final ScheduledExecutorService rebuildScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rank-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ita.oj.rank-index.rebuild-interval-minutes:10}")
+    private long rebuildIntervalMinutes;
+
+    public RankIndexService(UserOjMapper userOjMapper) {
+        this.userOjMapper = userOjMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuild();
+        rebuildScheduler.scheduleWithFixedDelay(this::rebuild,
+                rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 从user_oj流式读取全部用户构建新索引，完成后替换当前索引
+     * 构建期间发生的单点更新只作用于旧索引，由下一次重建收敛
+     */
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Indexes rebuilt = new Indexes();
+            userOjMapper.streamAllUserOj(context -> rebuilt.index(context.getResultObject()));
+            indexes = rebuilt;
+            log.info("排名索引重建完成: 总榜{}人, 耗时{}ms", rebuilt.total.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("排名索引重建失败，继续使用当前索引", e);
+        }
+    }
+
+    /**
+     * 用户的账号或数据整体变化后按数据库中的完整记录更新
+     */
+    public void index(UserOj userOj) {
+        indexes.index(userOj);
+    }
+
+    /**
+     * 更新用户在某个平台的成绩，用户未绑定该平台时忽略
+     */
+    public void updatePlatform(OjPlatformEnum platform, Long userId, int acCount, int submitCount) {
+        RankIndex index = indexes.platforms.get(platform);
+        if (index.contains(userId)) {
+            index.put(userId, acCount, submitCount);
+        }
+    }
+
+    /**
+     * 更新用户的总成绩，总AC数为0的用户不参与总榜
+     */
+    public void updateTotal(Long userId, int totalAc, int totalSubmit) {
+        indexes.updateTotal(userId, totalAc, totalSubmit);
+    }
+
+    /**
+     * 该成绩在平台中的排名（AC数降序，提交数升序，成绩相同并列）
+     */
+    public int platformRank(OjPlatformEnum platform, int acCount, int submitCount) {
+        return indexes.platforms.get(platform).rank(acCount, submitCount);
+    }
+
+    /**
+     * 绑定了该平台账号的总人数
+     */
+    public int platformTotalUsers(OjPlatformEnum platform) {
+        return indexes.platforms.get(platform).size();
+    }
+
+    /**
+     * 该总成绩在总榜中的排名
+     */
+    public int totalRank(int totalAc, int totalSubmit) {
+        return indexes.total.rank(totalAc, totalSubmit);
+    }
+
+    /**
+     * 总榜人数（总AC数大于0的用户）
+     */
+    public int totalRankedUsers() {
+        return indexes.total.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildScheduler.shutdownNow();
+    }
+
+    private static final class Indexes {
+        final Map<OjPlatformEnum, RankIndex> platforms = new EnumMap<>(OjPlatformEnum.class);
+        final RankIndex total = new RankIndex();
+
+        Indexes() {
+            for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+                platforms.put(platform, new RankIndex());
+            }
+        }
+
+        void index(UserOj userOj) {
+            long userId = userOj.getUserId();
+            for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+                String username = platform.getUsername(userOj);
+                if (username != null && !username.trim().isEmpty()) {
+                    platforms.get(platform).put(userId, platform.getAcNum(userOj), platform.getSubmitNum(userOj));
+                } else {
+                    platforms.get(platform).remove(userId);
+                }
+            }
+            updateTotal(userId,
+                    userOj.getTotalAcNum() != null ? userOj.getTotalAcNum() : 0,
+                    userOj.getTotalCommitNum() != null ? userOj.getTotalCommitNum() : 0);
+        }
+
+        void updateTotal(long userId, int totalAc, int totalSubmit) {
+            if (totalAc > 0) {
+                total.put(userId, totalAc, totalSubmit);
+            } else {
+                total.remove(userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ita.home.service.impl.rank;
+
+/**
+ * 一个用户的成绩从旧排序键变到新排序键时，其他用户和该用户自己的排名变化
+ * 排名为"排序键严格更小的人数 + 1"，键越小成绩越好，成绩相同并列：
+ * <ul>
+ *     <li>成绩变好（新 &lt; 旧）：键在(新, 旧]的用户被超过，排名加一；该用户越过了键在[新, 旧)的用户，每越过一人排名减一</li>
+ *     <li>成绩变差（新 &gt; 旧）：键在(旧, 新]的用户不再落后，排名减一；键在[旧, 新)的用户变为领先，每人使该用户排名加一</li>
+ * </ul>
+ * 两组用户都落在闭区间[min(新, 旧), max(新, 旧)]内，因此只需读取这一段
+ */
+public final class RankShift {
+
+    private final long oldKey;
+    private final long newKey;
+
+    public RankShift(int oldAc, int oldSubmit, int newAc, int newSubmit) {
+        this.oldKey = RankIndex.key(oldAc, oldSubmit);
+        this.newKey = RankIndex.key(newAc, newSubmit);
+    }
+
+    /**
+     * 新旧成绩的排序键是否相同，相同时没有任何排名变化
+     */
+    public boolean isNoop() {
+        return oldKey == newKey;
+    }
+
+    /**
+     * 是否为成绩变好，变好时受影响的用户排名加一，否则减一
+     */
+    public boolean isImprovement() {
+        return newKey < oldKey;
+    }
+
+    /**
+     * 成绩为(ac, submit)的其他用户的排名变化：+1、-1或0
+     */
+    public int deltaFor(int acCount, int submitCount) {
+        long key = RankIndex.key(acCount, submitCount);
+        if (newKey < oldKey) {
+            return key > newKey && key <= oldKey ? 1 : 0;
+        }
+        if (newKey > oldKey) {
+            return key > oldKey && key <= newKey ? -1 : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * 成绩为(ac, submit)的其他用户使变化者自己的排名改变多少：-1、+1或0
+     */
+    public int moverDeltaFor(int acCount, int submitCount) {
+        long key = RankIndex.key(acCount, submitCount);
+        if (newKey < oldKey) {
+            return key >= newKey && key < oldKey ? -1 : 0;
+        }
+        if (newKey > oldKey) {
+            return key >= oldKey && key < newKey ? 1 : 0;
+        }
+        return 0;
+    }
+}
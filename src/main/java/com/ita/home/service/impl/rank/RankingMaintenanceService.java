@@ -0,0 +1,150 @@
+package com.ita.home.service.impl.rank;
+
+import com.ita.home.config.cache.CacheInvalidationBroadcaster;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.mapper.UserPlatformRankingMapper;
+import com.ita.home.model.entity.RankingEpoch;
+import com.ita.home.model.entity.UserPlatformRanking;
+import com.ita.home.model.event.CacheInvalidationEvent;
+import com.ita.home.service.impl.HybridRankingService;
+import com.ita.home.service.impl.RankingEpochService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 排名表增量维护：用户某个平台的成绩变化后，只改写排名受影响的那一段，不再等待全量重算。
+ * 排名为"成绩严格更好的人数 + 1"，一个用户从旧成绩变到新成绩，只有排序键落在新旧成绩之间的用户排名加一或减一（见RankShift）。
+ * 读取这一段快照行后，平移其中受影响的行、由同一批行推出该用户的新排名并写回，最后只淘汰这些用户的L1条目。
+ * 只维护属于当前快照的行（last_calc_time不晚于快照时间），排名始终相对同一批快照用户计算；
+ * 快照之后才绑定的用户不计入他人排名，其成绩变化只按实时排名刷新自己的行，由定时全量重算纳入
+ */
+@Service
+@Slf4j
+public class RankingMaintenanceService {
+
+    private static final int SHIFT_BATCH_SIZE = 500;
+
+    private final UserPlatformRankingMapper rankingMapper;
+    private final RankIndexService rankIndexService;
+    private final RankingEpochService rankingEpochService;
+    private final HybridRankingService hybridRankingService;
+    private final CacheInvalidationBroadcaster invalidationBroadcaster;
+
+    /** 同一平台的增量维护与全量重算串行执行，避免平移基于过期的排名 */
+    private final Map<OjPlatformEnum, Object> platformLocks = new EnumMap<>(OjPlatformEnum.class);
+
+    public RankingMaintenanceService(UserPlatformRankingMapper rankingMapper,
+                                     RankIndexService rankIndexService,
+                                     RankingEpochService rankingEpochService,
+                                     HybridRankingService hybridRankingService,
+                                     CacheInvalidationBroadcaster invalidationBroadcaster) {
+        this.rankingMapper = rankingMapper;
+        this.rankIndexService = rankIndexService;
+        this.rankingEpochService = rankingEpochService;
+        this.hybridRankingService = hybridRankingService;
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+            platformLocks.put(platform, new Object());
+        }
+    }
+
+    /**
+     * 平台排名的互斥锁，全量重算期间持有
+     */
+    public Object lockFor(OjPlatformEnum platform) {
+        return platformLocks.get(platform);
+    }
+
+    /**
+     * 用户在某个平台的成绩由旧值变为新值：更新内存排名索引并平移排名表中受影响的行
+     * @param oldAc 写库前user_oj中的AC数
+     * @param oldSubmit 写库前user_oj中的提交数
+     */
+    public void onScoreChanged(OjPlatformEnum platform, Long userId,
+                               int oldAc, int oldSubmit, int newAc, int newSubmit) {
+        synchronized (lockFor(platform)) {
+            rankIndexService.updatePlatform(platform, userId, newAc, newSubmit);
+            if (oldAc == newAc && oldSubmit == newSubmit) {
+                return;
+            }
+            try {
+                applyToRankingTable(platform, userId, newAc, newSubmit);
+            } catch (Exception e) {
+                log.error("平台 {} 用户{}排名增量维护失败，等待全量重算", platform.getPlatformName(), userId, e);
+                evict(platform, userId);
+            }
+        }
+    }
+
+    private void applyToRankingTable(OjPlatformEnum platform, Long userId, int newAc, int newSubmit) {
+        RankingEpoch epoch = rankingEpochService.current(platform);
+        UserPlatformRanking row = rankingMapper.findByUserIdAndPlatform(userId, platform.getPlatformId());
+        if (row == null) {
+            evict(platform, userId);
+            return;
+        }
+        if (epoch.getCalcTime() == null || !rankingEpochService.isSnapshotRow(platform, row.getLastCalcTime())) {
+            // 不属于快照的行是单用户刷新写入的实时排名，按新成绩重新刷新（写L2后广播失效）
+            hybridRankingService.refreshPlatformRanking(platform.getPlatformId(), userId);
+            return;
+        }
+        // 以排名表中记录的成绩为旧值：其他行的排名正是相对它计算的
+        int oldAc = row.getAcCount() != null ? row.getAcCount() : 0;
+        int oldSubmit = row.getSubmitCount() != null ? row.getSubmitCount() : 0;
+        RankShift shift = new RankShift(oldAc, oldSubmit, newAc, newSubmit);
+        if (shift.isNoop()) {
+            return;
+        }
+
+        List<UserPlatformRanking> between = shift.isImprovement()
+                ? rankingMapper.findSnapshotRowsBetween(platform.getPlatformId(), userId, epoch.getCalcTime(),
+                        newAc, newSubmit, oldAc, oldSubmit)
+                : rankingMapper.findSnapshotRowsBetween(platform.getPlatformId(), userId, epoch.getCalcTime(),
+                        oldAc, oldSubmit, newAc, newSubmit);
+
+        // 受影响的用户和该用户的新排名都由同一批快照行得出
+        List<Long> shifted = new ArrayList<>();
+        int ranking = row.getRanking() != null ? row.getRanking() : 1;
+        for (UserPlatformRanking other : between) {
+            int ac = other.getAcCount() != null ? other.getAcCount() : 0;
+            int submit = other.getSubmitCount() != null ? other.getSubmitCount() : 0;
+            if (shift.deltaFor(ac, submit) != 0) {
+                shifted.add(other.getUserId());
+            }
+            ranking += shift.moverDeltaFor(ac, submit);
+        }
+        int delta = shift.isImprovement() ? 1 : -1;
+        for (int i = 0; i < shifted.size(); i += SHIFT_BATCH_SIZE) {
+            rankingMapper.shiftRankings(platform.getPlatformId(), delta,
+                    shifted.subList(i, Math.min(i + SHIFT_BATCH_SIZE, shifted.size())));
+        }
+
+        int totalUsers = row.getTotalUsers() != null && row.getTotalUsers() > 0 ? row.getTotalUsers() : 1;
+        row.setRanking(ranking);
+        row.setAcCount(newAc);
+        row.setSubmitCount(newSubmit);
+        row.setRankingPercentage(BigDecimal.valueOf((double) ranking / totalUsers * 100)
+                .setScale(2, RoundingMode.HALF_UP));
+        rankingMapper.upsertSingleRanking(row);
+
+        // 只淘汰排名发生变化的用户，其余L1条目继续有效；平移的用户可能很多，合并为一次批量广播
+        List<CacheInvalidationEvent> events = new ArrayList<>(shifted.size() + 1);
+        events.add(CacheInvalidationEvent.platformRanking(platform.getPlatformId(), userId));
+        for (Long shiftedUserId : shifted) {
+            events.add(CacheInvalidationEvent.platformRanking(platform.getPlatformId(), shiftedUserId));
+        }
+        invalidationBroadcaster.publishAll(events);
+        log.debug("平台 {} 用户{}排名增量维护: 新排名{}, 平移{}行", platform.getPlatformName(), userId, ranking, shifted.size());
+    }
+
+    private void evict(OjPlatformEnum platform, Long userId) {
+        invalidationBroadcaster.publish(CacheInvalidationEvent.platformRanking(platform.getPlatformId(), userId));
+    }
+}
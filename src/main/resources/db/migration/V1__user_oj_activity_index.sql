@@ -0,0 +1,5 @@
+-- 活跃用户相关查询按最近访问时间过滤：
+-- findActiveUserIds、streamActiveUserOj（范围 + 倒序）、clearInactiveUsersCache（范围更新）
+-- 索引带上user_id，findActiveUserIds只读索引即可完成
+ALTER TABLE user_oj
+    ADD INDEX idx_last_access_time (last_access_time, user_id);
@@ -0,0 +1,11 @@
+-- 总榜排序：AC数降序、提交数升序，用户ID保证成绩相同时顺序稳定
+-- 服务页码分页的ORDER BY ... LIMIT、游标分页的定位以及countActiveUsers的total_ac_num > 0
+-- 曾有一版db.sql直接建了该索引，已存在时跳过
+SET @index_exists := (SELECT COUNT(*) FROM information_schema.statistics
+                      WHERE table_schema = DATABASE() AND table_name = 'user_oj' AND index_name = 'idx_total_rank');
+SET @ddl := IF(@index_exists = 0,
+               'ALTER TABLE user_oj ADD INDEX idx_total_rank (total_ac_num DESC, total_commit_num, user_id)',
+               'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,15 @@
+-- 各平台排名查询的条件"用户名不为空且不为空串"无法走索引，改为虚拟生成列标记是否绑定该平台，
+-- 与平台的(AC数降序, 提交数升序)组成索引，全量排名计算按索引顺序读取，不再全表扫描加filesort
+ALTER TABLE user_oj
+    ADD COLUMN luogu_bound TINYINT GENERATED ALWAYS AS
+        (IF(luogu_username IS NULL OR luogu_username = '', 0, 1)) VIRTUAL COMMENT '是否绑定洛谷账号',
+    ADD COLUMN leetcode_bound TINYINT GENERATED ALWAYS AS
+        (IF(leetcode_cn_username IS NULL OR leetcode_cn_username = '', 0, 1)) VIRTUAL COMMENT '是否绑定力扣账号',
+    ADD COLUMN nowcoder_bound TINYINT GENERATED ALWAYS AS
+        (IF(nowcoder_user_id IS NULL OR nowcoder_user_id = '', 0, 1)) VIRTUAL COMMENT '是否绑定牛客账号',
+    ADD COLUMN codeforces_bound TINYINT GENERATED ALWAYS AS
+        (IF(codeforce_username IS NULL OR codeforce_username = '', 0, 1)) VIRTUAL COMMENT '是否绑定Codeforces账号',
+    ADD INDEX idx_luogu_rank (luogu_bound, luogu_ac_num DESC, luogu_submit_num),
+    ADD INDEX idx_leetcode_rank (leetcode_bound, leetcode_ac_num DESC, leetcode_submit_num),
+    ADD INDEX idx_nowcoder_rank (nowcoder_bound, nowcoder_ac_num DESC, nowcoder_submit_num),
+    ADD INDEX idx_codeforces_rank (codeforces_bound, codeforces_ac_num DESC, codeforces_submit_num);
@@ -0,0 +1,3 @@
+-- 排名增量维护读取新旧成绩之间的快照行（findSnapshotRowsBetween），条件为平台 + (AC数, 提交数)范围
+ALTER TABLE user_platform_ranking
+    ADD INDEX idx_platform_score (platform_id, ac_count DESC, submit_count);
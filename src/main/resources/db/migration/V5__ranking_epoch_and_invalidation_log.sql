@@ -0,0 +1,17 @@
+-- 排名快照版本表和缓存失效日志表，此前只在db.sql中创建，已有数据的库需要由迁移补建
+CREATE TABLE IF NOT EXISTS ranking_epoch (
+    platform_id VARCHAR(20) NOT NULL PRIMARY KEY COMMENT '平台ID',
+    epoch_id BIGINT NOT NULL COMMENT '排名快照版本号，每次全量计算递增',
+    calc_time DATETIME NOT NULL COMMENT '该版本排名的计算时间',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='平台排名快照版本表';
+
+CREATE TABLE IF NOT EXISTS cache_invalidation_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '自增ID，节点按ID顺序读取',
+    target VARCHAR(32) NOT NULL COMMENT '失效的缓存: OJ_DATA / PLATFORM_RANKING',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    platform_id VARCHAR(20) DEFAULT NULL COMMENT '平台ID',
+    origin_node VARCHAR(64) NOT NULL COMMENT '发出事件的节点ID',
+    create_time DATETIME NOT NULL COMMENT '创建时间',
+    INDEX idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='缓存失效日志表';
@@ -0,0 +1,3 @@
+-- 全量重算的认领时间，多个实例中每个间隔只有认领成功的实例执行重算
+ALTER TABLE ranking_epoch
+    ADD COLUMN check_time DATETIME DEFAULT NULL COMMENT '最近一次全量重算的认领时间' AFTER calc_time;
@@ -1,3 +1,5 @@
+-- 初始表结构，之后的索引和字段变更见 db/migration 下的版本化迁移脚本，应用启动时自动执行
+
 -- 创建 ita_home 数据库
 CREATE DATABASE IF NOT EXISTS ita_home
 CHARACTER SET utf8mb4
@@ -27,16 +29,16 @@ CREATE TABLE IF NOT EXISTS `user_oj`(
                                       `user_id` BIGINT NOT NULL COMMENT '用户ID，关联user表',
                                       `luogu_username` VARCHAR(50) NULL COMMENT '洛谷平台用户名',
                                       `luogu_ac_num` INT DEFAULT 0 COMMENT '洛谷通过数',
-                                      `luogu_commit_num` INT DEFAULT 0 COMMENT '洛谷提交数',
+                                      `luogu_submit_num` INT DEFAULT 0 COMMENT '洛谷提交数',
                                       `leetcode_cn_username` VARCHAR(50) NULL COMMENT 'LeetCode中国站用户名',
-                                      `leetcode_cn_ac_num` INT DEFAULT 0 COMMENT '力扣通过数',
-                                      `leetcode_cn_commit_num` INT DEFAULT 0 COMMENT '力扣提交数',
+                                      `leetcode_ac_num` INT DEFAULT 0 COMMENT '力扣通过数',
+                                      `leetcode_submit_num` INT DEFAULT 0 COMMENT '力扣提交数',
                                       `nowcoder_user_id` VARCHAR(50) NULL COMMENT '牛客网用户ID',
                                       `nowcoder_ac_num` INT DEFAULT 0 COMMENT '牛客通过数',
-                                      `nowcoder_commit_num` INT DEFAULT 0 COMMENT '牛客提交数',
+                                      `nowcoder_submit_num` INT DEFAULT 0 COMMENT '牛客提交数',
                                       `codeforce_username` VARCHAR(50) NULL COMMENT 'Codeforces用户名',
-                                      `codeforce_ac_num` INT DEFAULT 0 COMMENT 'Codeforces通过数',
-                                      `codeforce_commit_num` INT DEFAULT 0 COMMENT 'Codeforces提交数',
+                                      `codeforces_ac_num` INT DEFAULT 0 COMMENT 'Codeforces通过数',
+                                      `codeforces_submit_num` INT DEFAULT 0 COMMENT 'Codeforces提交数',
                                       `total_ac_num` INT NULL COMMENT '四个平台ac数之和',
                                       `total_commit_num` INT NULL COMMENT '四个平台commit数之和',
                                       `last_access_time` DATETIME NULL COMMENT '最后访问时间',
@@ -71,3 +73,22 @@ CREATE TABLE user_platform_ranking (
                                        INDEX idx_calc_time (last_calc_time) COMMENT '计算时间索引'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户平台排名缓存表';
 
+
+CREATE TABLE IF NOT EXISTS ranking_epoch (
+                               platform_id VARCHAR(20) NOT NULL PRIMARY KEY COMMENT '平台ID',
+                               epoch_id BIGINT NOT NULL COMMENT '排名快照版本号，每次全量计算递增',
+                               calc_time DATETIME NOT NULL COMMENT '该版本排名的计算时间',
+                               check_time DATETIME DEFAULT NULL COMMENT '最近一次全量重算的认领时间',
+                               update_time DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='平台排名快照版本表';
+
+
+CREATE TABLE IF NOT EXISTS cache_invalidation_log (
+                                        id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '自增ID，节点按ID顺序读取',
+                                        target VARCHAR(32) NOT NULL COMMENT '失效的缓存: OJ_DATA / PLATFORM_RANKING',
+                                        user_id BIGINT NOT NULL COMMENT '用户ID',
+                                        platform_id VARCHAR(20) DEFAULT NULL COMMENT '平台ID',
+                                        origin_node VARCHAR(64) NOT NULL COMMENT '发出事件的节点ID',
+                                        create_time DATETIME NOT NULL COMMENT '创建时间',
+                                        INDEX idx_create_time (create_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='缓存失效日志表';
@@ -0,0 +1,140 @@
+package com.ita.home.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.config.cache.PlatformUsernameKey;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.dto.OjUserDataDto;
+import com.ita.home.stub.OjHuntStubServer;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上游调用延迟对比：原先的RestTemplate + SimpleClientHttpRequestFactory（每次调用新建HttpURLConnection）
+ * 与连接池化的OjHuntClient，分别向本地桩服务发出相同数量的请求，比较吞吐量和p50/p99
+ * 参数：请求数（默认2000） 并发线程数（默认16） 桩服务响应体中solvedList条目数（默认500）
+ * 桩服务为明文HTTP，结果只体现建连和gzip的差异，不含TLS握手；对真实上游的差距会更大
+ * 运行：在IDE中直接运行main，或 mvn test-compile 后用 test classpath 执行
+ */
+public class OjHuntClientLatency {
+
+    private static final int REQUESTS = 2_000;
+    private static final String[] PLATFORMS = {"luogu", "leetcode_cn", "codeforces", "nowcoder"};
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : REQUESTS;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int solvedListSize = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        try (OjHuntStubServer stub = OjHuntStubServer.create(0, OjHuntStubServer.PlatformProfile.builder()
+                        .latency(OjHuntStubServer.Latency.fixed(5))
+                        .solvedListSize(solvedListSize)
+                        // 每个请求都完整返回响应体，不走条件请求
+                        .etagEnabled(false)
+                        .build())
+                .start()) {
+            String baseUrl = stub.getBaseUrl();
+
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(10000);
+            factory.setReadTimeout(30000);
+            RestTemplate restTemplate = new RestTemplate(factory);
+            Call simple = i -> restTemplate.getForObject(baseUrl + "/{platform}/{username}", OjUserDataDto.class,
+                    PLATFORMS[i % PLATFORMS.length], "user" + i);
+
+            OjHuntClient client = newClient(baseUrl);
+            OjPlatformEnum[] platforms = OjPlatformEnum.values();
+            Call pooled = i -> client.fetchAsync(platforms[i % platforms.length], "user" + i,
+                    UpstreamPriority.INTERACTIVE, Duration.ofSeconds(30)).join();
+
+            System.out.printf("requests=%d threads=%d solvedListSize=%d%n", requests, threads, solvedListSize);
+            // 各跑一轮预热后再测量
+            measure(simple, Math.min(requests, 200), threads);
+            report("SimpleClientHttpRequestFactory", measure(simple, requests, threads));
+            measure(pooled, Math.min(requests, 200), threads);
+            report("OjHuntClient", measure(pooled, requests, threads));
+        }
+    }
+
+    private static OjHuntClient newClient(String baseUrl) {
+        OjHuntClientProperties properties = new OjHuntClientProperties();
+        // 只比较连接方式，关闭限流和熔断
+        properties.getRateLimit().setEnabled(false);
+        properties.getCircuitBreaker().setEnabled(false);
+        properties.setMaxConcurrencyPerPlatform(Integer.MAX_VALUE / 2);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+        OjHuntClient client = new OjHuntClient(httpClient,
+                new OjHuntResponseParser(new ObjectMapper(), properties),
+                properties,
+                new PlatformConcurrencyLimiter(properties),
+                new PlatformCircuitBreaker(properties),
+                new PlatformRateLimiter(properties),
+                Caffeine.newBuilder().<PlatformUsernameKey, OjHuntValidator>build(),
+                ForkJoinPool.commonPool());
+        ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+        return client;
+    }
+
+    /**
+     * 用固定数量的线程发出全部请求，返回每个请求的耗时（微秒）和总耗时
+     */
+    private static Result measure(Call call, int requests, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> tasks = new ArrayList<>(requests);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                tasks.add(executor.submit(() -> {
+                    long callStart = System.nanoTime();
+                    call.invoke(index);
+                    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - callStart);
+                }));
+            }
+            long[] latencies = new long[requests];
+            for (int i = 0; i < requests; i++) {
+                latencies[i] = tasks.get(i).get();
+            }
+            return new Result(latencies, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(String name, Result result) {
+        long[] latencies = result.latenciesMicros().clone();
+        Arrays.sort(latencies);
+        System.out.printf("%-32s %8.1f req/s  p50=%6.2fms  p99=%6.2fms%n", name,
+                latencies.length / (result.elapsedNanos() / 1e9),
+                percentile(latencies, 50) / 1000.0, percentile(latencies, 99) / 1000.0);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void invoke(int index) throws Exception;
+    }
+
+    private record Result(long[] latenciesMicros, long elapsedNanos) {
+    }
+}
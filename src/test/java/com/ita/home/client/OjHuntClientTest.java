@@ -0,0 +1,97 @@
+package com.ita.home.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.config.cache.PlatformUsernameKey;
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.stub.OjHuntStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于本地桩服务的OjHuntClient测试，不访问外网
+ */
+class OjHuntClientTest {
+
+    private OjHuntStubServer stub;
+    private OjHuntClient client;
+    private PlatformCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = OjHuntStubServer.create()
+                .platform("codeforces", OjHuntStubServer.PlatformProfile.builder().errorRate(1).build())
+                .platform("nowcoder", OjHuntStubServer.PlatformProfile.builder().errorRate(1).errorStatus(404).build())
+                .userData("luogu", "alice", 97, 363)
+                .start();
+
+        OjHuntClientProperties properties = new OjHuntClientProperties();
+        // 测试会连续发出多次请求，不让令牌桶限速干扰结果
+        properties.getRateLimit().setEnabled(false);
+        circuitBreaker = new PlatformCircuitBreaker(properties);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        client = new OjHuntClient(httpClient,
+                new OjHuntResponseParser(new ObjectMapper(), properties),
+                properties,
+                new PlatformConcurrencyLimiter(properties),
+                circuitBreaker,
+                new PlatformRateLimiter(properties),
+                Caffeine.newBuilder().<PlatformUsernameKey, OjHuntValidator>build(),
+                ForkJoinPool.commonPool());
+        ReflectionTestUtils.setField(client, "baseUrl", stub.getBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void fetchesAndRevalidatesWithEtag() {
+        OjHuntFetchResult first = fetch(OjPlatformEnum.LUOGU, "alice");
+        assertTrue(first.isModified());
+        assertEquals(97, first.getData().getData().getSolved());
+        assertEquals(363, first.getData().getData().getSubmissions());
+
+        OjHuntFetchResult second = fetch(OjPlatformEnum.LUOGU, "alice");
+        assertFalse(second.isModified());
+        assertEquals(97, second.getData().getData().getSolved());
+        assertEquals(363, second.getData().getData().getSubmissions());
+        assertEquals(2, stub.getRequestCount("luogu"));
+    }
+
+    @Test
+    void upstreamErrorFailsTheFuture() {
+        assertThrows(CompletionException.class, () -> fetch(OjPlatformEnum.CODEFORCES, "bob"));
+    }
+
+    @Test
+    void serverErrorsOpenTheBreakerButClientErrorsDoNot() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(CompletionException.class, () -> fetch(OjPlatformEnum.CODEFORCES, "bob"));
+            assertThrows(CompletionException.class, () -> fetch(OjPlatformEnum.NOWCODER, "bob"));
+        }
+        assertEquals(PlatformCircuitBreaker.State.OPEN, circuitBreaker.getState(OjPlatformEnum.CODEFORCES));
+        assertEquals(PlatformCircuitBreaker.State.CLOSED, circuitBreaker.getState(OjPlatformEnum.NOWCODER));
+    }
+
+    private OjHuntFetchResult fetch(OjPlatformEnum platform, String username) {
+        return client.fetchAsync(platform, username, UpstreamPriority.INTERACTIVE, Duration.ofSeconds(5)).join();
+    }
+}
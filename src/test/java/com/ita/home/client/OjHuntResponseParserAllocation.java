@@ -0,0 +1,89 @@
+package com.ita.home.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.model.dto.OjUserDataDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OJHunt响应解析的JMH基准：ObjectMapper整体反序列化、流式解析跳过solvedList、流式解析写入PackedSolvedList
+ * 使用GC profiler（-prof gc），每次解析的分配量见gc.alloc.rate.norm（B/op）
+ * 运行：在IDE中直接运行main，或 mvn test-compile 后用 test classpath 执行 org.openjdk.jmh.Main OjHuntResponseParserAllocation -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OjHuntResponseParserAllocation {
+
+    /** solvedList条目数 */
+    @Param({"100", "3000"})
+    public int solvedListSize;
+
+    private ObjectMapper objectMapper;
+    private OjHuntResponseParser parser;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        parser = new OjHuntResponseParser(objectMapper, new OjHuntClientProperties());
+        body = objectMapper.writeValueAsBytes(payload(solvedListSize));
+    }
+
+    @Benchmark
+    public OjUserDataDto objectMapperReadValue() throws IOException {
+        return objectMapper.readValue(body, OjUserDataDto.class);
+    }
+
+    @Benchmark
+    public OjUserDataDto streamingSkipSolvedList() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body), false);
+    }
+
+    @Benchmark
+    public OjUserDataDto streamingPackedSolvedList() throws IOException {
+        return parser.parse(new ByteArrayInputStream(body), true);
+    }
+
+    private static OjUserDataDto payload(int solvedListSize) {
+        List<String> solvedList = new ArrayList<>(solvedListSize);
+        for (int i = 0; i < solvedListSize; i++) {
+            solvedList.add("P" + (1000 + i));
+        }
+        return new OjUserDataDto(false, OjUserDataDto.UserData.builder()
+                .solved(solvedListSize)
+                .submissions(solvedListSize * 3)
+                .solvedList(solvedList)
+                .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OjHuntResponseParserAllocation.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
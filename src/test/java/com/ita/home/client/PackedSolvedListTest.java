@@ -0,0 +1,42 @@
+package com.ita.home.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackedSolvedListTest {
+
+    @Test
+    void sortsDeduplicatesAndSearches() {
+        PackedSolvedList list = PackedSolvedList.builder()
+                .add("P1003")
+                .add("P1001")
+                .add("CF-1A")
+                .add("P1001")
+                .add("题目2")
+                .build();
+        assertEquals(List.of("CF-1A", "P1001", "P1003", "题目2"), list);
+        assertTrue(list.contains("P1001"));
+        assertTrue(list.contains("题目2"));
+        assertFalse(list.contains("P1002"));
+    }
+
+    @Test
+    void keepsAlreadySortedInputInOrder() {
+        PackedSolvedList.Builder builder = PackedSolvedList.builder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String id = "P" + (10_000 + i);
+            char[] chars = ("[" + id + "]").toCharArray();
+            builder.add(chars, 1, id.length());
+            expected.add(id);
+        }
+        assertEquals(expected, builder.build());
+        assertTrue(PackedSolvedList.builder().build().isEmpty());
+    }
+}
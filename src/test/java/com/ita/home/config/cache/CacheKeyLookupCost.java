@@ -0,0 +1,108 @@
+package com.ita.home.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ita.home.enums.OjPlatformEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Caffeine缓存按不同Key形式命中查询的JMH基准：原先的String.format/字符串拼接Key与现在的Long、PlatformUserKey
+ * 每种Key形式各有一个装满的缓存，每次调用按轮转的用户ID构造Key并查询，Key的构造开销计入结果；
+ * 使用GC profiler，每次查询的分配量见gc.alloc.rate.norm（B/op）
+ * 运行：在IDE中直接运行main，或 mvn test-compile 后用 test classpath 执行 org.openjdk.jmh.Main CacheKeyLookupCost -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheKeyLookupCost {
+
+    private static final OjPlatformEnum PLATFORM = OjPlatformEnum.CODEFORCES;
+
+    private static final LongFunction<String> FORMAT_KEY =
+            userId -> String.format("ranking:%s:%d", PLATFORM.getPlatformId(), userId);
+    private static final LongFunction<String> CONCAT_KEY = userId -> "oj_data:" + userId;
+    private static final LongFunction<PlatformUserKey> PLATFORM_USER_KEY = userId -> PlatformUserKey.of(PLATFORM, userId);
+    private static final LongFunction<Long> LONG_KEY = userId -> userId;
+
+    /** 缓存中的用户数 */
+    @Param({"100000"})
+    public int users;
+
+    private Cache<String, Object> formatCache;
+    private Cache<String, Object> concatCache;
+    private Cache<PlatformUserKey, Object> platformUserKeyCache;
+    private Cache<Long, Object> longCache;
+
+    /** 下一次查询的用户ID，轮转覆盖全部用户；ID跨过Long缓存范围（-128~127），与线上一样会产生装箱 */
+    private long nextUserId;
+
+    @Setup
+    public void setUp() {
+        formatCache = filledCache(FORMAT_KEY);
+        concatCache = filledCache(CONCAT_KEY);
+        platformUserKeyCache = filledCache(PLATFORM_USER_KEY);
+        longCache = filledCache(LONG_KEY);
+    }
+
+    @Benchmark
+    public Object stringFormatKey() {
+        return formatCache.getIfPresent(FORMAT_KEY.apply(nextUserId()));
+    }
+
+    @Benchmark
+    public Object stringConcatKey() {
+        return concatCache.getIfPresent(CONCAT_KEY.apply(nextUserId()));
+    }
+
+    @Benchmark
+    public Object platformUserKey() {
+        return platformUserKeyCache.getIfPresent(PLATFORM_USER_KEY.apply(nextUserId()));
+    }
+
+    @Benchmark
+    public Object longKey() {
+        return longCache.getIfPresent(LONG_KEY.apply(nextUserId()));
+    }
+
+    private long nextUserId() {
+        long userId = nextUserId;
+        nextUserId = userId + 1 == users ? 0 : userId + 1;
+        return userId;
+    }
+
+    private <K> Cache<K, Object> filledCache(LongFunction<K> keyOf) {
+        Cache<K, Object> cache = Caffeine.newBuilder().maximumSize(users * 2L).build();
+        Object value = new Object();
+        for (long userId = 0; userId < users; userId++) {
+            cache.put(keyOf.apply(userId), value);
+        }
+        return cache;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheKeyLookupCost.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
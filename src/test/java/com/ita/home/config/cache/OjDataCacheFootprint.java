@@ -0,0 +1,114 @@
+package com.ita.home.config.cache;
+
+import com.ita.home.enums.OjPlatformEnum;
+import com.ita.home.model.dto.OjDataDto;
+import com.ita.home.model.vo.OjUserDataVo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * ojDataCache缓存值的堆占用对比：OjUserDataVo与PackedOjUserData各放入10万个用户，比较GC后的堆增量
+ * 运行：在IDE中直接运行main，或 mvn test-compile 后用 test classpath 执行；建议加 -Xmx1g -XX:+UseSerialGC 使测量更稳定
+ */
+public class OjDataCacheFootprint {
+
+    private static final int USERS = 100_000;
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : USERS;
+        List<OjUserDataVo> source = generate(users);
+
+        long voBytes = measure(source, vo -> vo);
+        long packedBytes = measure(source, PackedOjUserData::from);
+
+        System.out.printf("users=%d%n", users);
+        System.out.printf("OjUserDataVo:     %,d bytes (%d bytes/user)%n", voBytes, voBytes / users);
+        System.out.printf("PackedOjUserData: %,d bytes (%d bytes/user)%n", packedBytes, packedBytes / users);
+        System.out.printf("ratio: %.2f%n", (double) voBytes / packedBytes);
+    }
+
+    /**
+     * 以与缓存相同的形式（userId -> 值）保存全部用户，返回GC后的堆增量；不含source本身
+     */
+    private static long measure(List<OjUserDataVo> source, Function<OjUserDataVo, Object> converter) {
+        long before = usedHeap();
+        Map<Long, Object> cache = new HashMap<>(source.size() * 2);
+        for (int i = 0; i < source.size(); i++) {
+            // 先复制一份VO，避免直接复用source中的对象导致VO一侧的测量结果偏小
+            cache.put((long) i, converter.apply(copy(source.get(i))));
+        }
+        long after = usedHeap();
+        if (cache.size() != source.size()) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static List<OjUserDataVo> generate(int users) {
+        Random random = new Random(42);
+        List<OjUserDataVo> result = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            List<OjDataDto> dtoList = new ArrayList<>();
+            int totalAc = 0;
+            int totalSubmit = 0;
+            for (OjPlatformEnum platform : OjPlatformEnum.values()) {
+                // 每个平台约有四分之三的用户绑定
+                if (random.nextInt(4) == 0) {
+                    continue;
+                }
+                int solved = random.nextInt(2000);
+                int submitted = solved + random.nextInt(4000);
+                dtoList.add(OjDataDto.builder().name(platform.getPlatformId()).solved(solved).submitted(submitted).build());
+                totalAc += solved;
+                totalSubmit += submitted;
+            }
+            result.add(OjUserDataVo.builder()
+                    .ojDataDtoList(dtoList)
+                    .totalAc(totalAc)
+                    .totalSubmit(totalSubmit)
+                    .fetchTime(LocalDateTime.now())
+                    .stale(false)
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * 深拷贝，保证Integer等装箱对象不与source共享（超出Integer缓存范围的值会新建对象）；平台名称与实际一样共享常量
+     */
+    private static OjUserDataVo copy(OjUserDataVo vo) {
+        List<OjDataDto> dtoList = new ArrayList<>();
+        for (OjDataDto dto : vo.getOjDataDtoList()) {
+            dtoList.add(OjDataDto.builder()
+                    .name(dto.getName())
+                    .solved(Integer.valueOf(dto.getSolved()))
+                    .submitted(Integer.valueOf(dto.getSubmitted()))
+                    .build());
+        }
+        return vo.toBuilder()
+                .ojDataDtoList(dtoList)
+                .totalAc(Integer.valueOf(vo.getTotalAc()))
+                .totalSubmit(Integer.valueOf(vo.getTotalSubmit()))
+                .fetchTime(LocalDateTime.parse(vo.getFetchTime().toString()))
+                .build();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,246 @@
+package com.ita.home.mapper;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在MySQL 8容器中按db.sql建库、执行db/migration下的全部迁移并写入测试数据，
+ * 然后对mapper注解中的原始SQL执行EXPLAIN，确认各访问路径使用了迁移添加的索引。没有Docker时跳过
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationExplainTest {
+
+    private static final int USERS = 20_000;
+    private static final String[] PLATFORMS = {"luogu", "leetcode", "nowcoder", "codeforces"};
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("ita_home")
+            .withUsername("root")
+            .withPassword("test");
+
+    @BeforeAll
+    static void migrateAndSeed() throws Exception {
+        try (Connection connection = connection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("static/db.sql"));
+        }
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        try (Connection connection = connection()) {
+            connection.setAutoCommit(false);
+            seed(connection);
+            connection.commit();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE TABLE ita_home.user, ita_home.user_oj, ita_home.user_platform_ranking");
+            }
+        }
+    }
+
+    /**
+     * 每个平台约10%的用户绑定账号，约5%的用户最近7天内访问过
+     */
+    private static void seed(Connection connection) throws Exception {
+        Random random = new Random(42);
+        try (PreparedStatement user = connection.prepareStatement(
+                "INSERT INTO ita_home.user (id, name, mail, password) VALUES (?, ?, ?, 'x')");
+             PreparedStatement userOj = connection.prepareStatement(
+                     "INSERT INTO ita_home.user_oj (user_id, luogu_username, luogu_ac_num, luogu_submit_num, " +
+                     "leetcode_cn_username, leetcode_ac_num, leetcode_submit_num, " +
+                     "nowcoder_user_id, nowcoder_ac_num, nowcoder_submit_num, " +
+                     "codeforce_username, codeforces_ac_num, codeforces_submit_num, " +
+                     "total_ac_num, total_commit_num, last_access_time) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement ranking = connection.prepareStatement(
+                     "INSERT INTO ita_home.user_platform_ranking (user_id, platform_id, platform_name, username, " +
+                     "ranking, ac_count, submit_count, total_users, ranking_percentage, last_calc_time) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)")) {
+            for (int id = 1; id <= USERS; id++) {
+                user.setLong(1, id);
+                user.setString(2, "user" + id);
+                user.setString(3, "user" + id + "@example.com");
+                user.addBatch();
+
+                userOj.setLong(1, id);
+                int totalAc = 0;
+                int totalSubmit = 0;
+                for (int p = 0; p < PLATFORMS.length; p++) {
+                    boolean bound = random.nextInt(10) == 0;
+                    int ac = bound ? random.nextInt(2000) : 0;
+                    int submit = bound ? ac + random.nextInt(2000) : 0;
+                    userOj.setString(2 + p * 3, bound ? PLATFORMS[p] + id : null);
+                    userOj.setInt(3 + p * 3, ac);
+                    userOj.setInt(4 + p * 3, submit);
+                    totalAc += ac;
+                    totalSubmit += submit;
+                    if (bound) {
+                        ranking.setLong(1, id);
+                        ranking.setString(2, PLATFORMS[p]);
+                        ranking.setString(3, PLATFORMS[p]);
+                        ranking.setString(4, PLATFORMS[p] + id);
+                        ranking.setInt(5, 1);
+                        ranking.setInt(6, ac);
+                        ranking.setInt(7, submit);
+                        ranking.setInt(8, USERS / 10);
+                        ranking.setTimestamp(9, Timestamp.valueOf(NOW));
+                        ranking.addBatch();
+                    }
+                }
+                userOj.setInt(14, totalAc);
+                userOj.setInt(15, totalSubmit);
+                boolean active = random.nextInt(20) == 0;
+                userOj.setTimestamp(16, Timestamp.valueOf(
+                        active ? NOW.minusDays(random.nextInt(7)) : NOW.minusDays(30 + random.nextInt(300))));
+                userOj.addBatch();
+            }
+            user.executeBatch();
+            userOj.executeBatch();
+            ranking.executeBatch();
+        }
+    }
+
+    @Test
+    void migrationsCreateTablesMissingFromOlderDatabases() throws Exception {
+        try (Connection connection = connection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM information_schema.tables " +
+                     "WHERE table_schema = 'ita_home' AND table_name IN ('ranking_epoch', 'cache_invalidation_log')")) {
+            rs.next();
+            assertEquals(2, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void activeUserIdsUseCoveringAccessTimeIndex() throws Exception {
+        String sql = mapperSql(UserOjMapper.class, "findActiveUserIds",
+                Map.of("activeTime", literal(NOW.minusDays(7))));
+        Explain explain = explain(sql, "user_oj");
+        assertEquals("idx_last_access_time", explain.key());
+        assertTrue(explain.extra().contains("Using index"), explain.extra());
+    }
+
+    @Test
+    void clearInactiveUsersCacheUsesAccessTimeIndex() throws Exception {
+        String sql = mapperSql(UserOjMapper.class, "clearInactiveUsersCache",
+                Map.of("inactiveTime", literal(NOW.minusDays(320))));
+        assertEquals("idx_last_access_time", explain(sql, "user_oj").key());
+    }
+
+    @Test
+    void leaderboardPagesReadTotalRankIndexInOrder() throws Exception {
+        String offsetSql = mapperSql(UserOjMapper.class, "findActiveUserRankings",
+                Map.of("offset", "0", "limit", "20"));
+        Explain offset = explain(offsetSql, "uo");
+        assertEquals("idx_total_rank", offset.key());
+        assertFalse(offset.extra().contains("filesort"), offset.extra());
+
+        String cursorSql = mapperSql(UserOjMapper.class, "findActiveUserRankingsAfter",
+                Map.of("cursor.totalAc", "100", "cursor.totalSubmit", "150", "cursor.userId", "42", "limit", "21"));
+        Explain cursor = explain(cursorSql, "uo");
+        assertEquals("idx_total_rank", cursor.key());
+        assertFalse(cursor.extra().contains("filesort"), cursor.extra());
+    }
+
+    @Test
+    void platformRankingQueriesUseBoundColumnIndexes() throws Exception {
+        Map<String, String> queries = Map.of(
+                "getLuoguUsersOrdered", "idx_luogu_rank",
+                "getLeetcodeUsersOrdered", "idx_leetcode_rank",
+                "getNowcoderUsersOrdered", "idx_nowcoder_rank",
+                "getCodeforcesUsersOrdered", "idx_codeforces_rank");
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            Explain explain = explain(mapperSql(UserOjMapper.class, query.getKey(), Map.of()), "uo");
+            assertEquals(query.getValue(), explain.key(), query.getKey());
+            assertFalse(explain.extra().contains("filesort"), query.getKey() + ": " + explain.extra());
+        }
+    }
+
+    @Test
+    void rankingRangeShiftUsesPlatformScoreIndex() throws Exception {
+        String sql = mapperSql(UserPlatformRankingMapper.class, "findSnapshotRowsBetween", Map.of(
+                "platformId", "'luogu'", "userId", "1", "calcTime", literal(NOW),
+                "betterAc", "1500", "betterSubmit", "1600", "worseAc", "1490", "worseSubmit", "1700"));
+        assertEquals("idx_platform_score", explain(sql, "user_platform_ranking").key());
+    }
+
+    /**
+     * 取mapper方法注解中的SQL，去掉MyBatis脚本标签（保留if中的条件），把#{参数}替换为字面量
+     */
+    private static String mapperSql(Class<?> mapper, String methodName, Map<String, String> params) {
+        Method method = Arrays.stream(mapper.getMethods())
+                .filter(m -> m.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        String[] parts = method.isAnnotationPresent(Select.class)
+                ? method.getAnnotation(Select.class).value()
+                : method.getAnnotation(Update.class).value();
+        String sql = String.join(" ", parts)
+                .replaceAll("</?script>", "")
+                .replaceAll("<if[^>]*>|</if>", "")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">");
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            sql = sql.replace("#{" + param.getKey() + "}", param.getValue());
+        }
+        assertFalse(sql.contains("#{"), sql);
+        return sql;
+    }
+
+    private static String literal(LocalDateTime time) {
+        return "'" + Timestamp.valueOf(time) + "'";
+    }
+
+    /**
+     * 执行EXPLAIN，返回指定表（或别名）那一行的key和Extra
+     */
+    private static Explain explain(String sql, String table) throws Exception {
+        try (Connection connection = connection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                if (table.equals(rs.getString("table"))) {
+                    String extra = rs.getString("Extra");
+                    return new Explain(rs.getString("key"), extra != null ? extra : "");
+                }
+            }
+        }
+        throw new AssertionError("EXPLAIN结果中没有表 " + table + ": " + sql);
+    }
+
+    private static Connection connection() throws Exception {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    private record Explain(String key, String extra) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.ita.home.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ita.home.client.OjHuntClient;
+import com.ita.home.client.OjHuntResponseParser;
+import com.ita.home.client.OjHuntValidator;
+import com.ita.home.client.PlatformCircuitBreaker;
+import com.ita.home.client.PlatformConcurrencyLimiter;
+import com.ita.home.client.PlatformRateLimiter;
+import com.ita.home.config.OjCacheProperties;
+import com.ita.home.config.OjHuntClientProperties;
+import com.ita.home.config.ThreadPoolConfig;
+import com.ita.home.config.cache.CacheInvalidationBroadcaster;
+import com.ita.home.config.cache.OjPlatformDataCache;
+import com.ita.home.config.cache.PackedOjUserData;
+import com.ita.home.config.cache.PlatformUsernameKey;
+import com.ita.home.config.cache.RestoredAgeRegistry;
+import com.ita.home.mapper.UserOjMapper;
+import com.ita.home.model.dto.OjDataDto;
+import com.ita.home.model.entity.UserOj;
+import com.ita.home.model.vo.OjUserDataVo;
+import com.ita.home.service.impl.async.AsyncOjUpdateService;
+import com.ita.home.service.impl.async.LastAccessTimeBuffer;
+import com.ita.home.service.impl.rank.RankIndexService;
+import com.ita.home.stub.OjHuntStubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 500个用户同时获取实时OJ数据时的吞吐量和延迟，对比ojApiExecutorService的平台线程池模式和虚拟线程模式
+ * 每个用户在一个请求线程中调用UserOjServiceImpl.getRealTimeOjUserDataVo，四个平台的请求与线上一样经过
+ * ojApiExecutorService、限流、舱壁和熔断器；线程池由ThreadPoolConfig按mode创建，上游为对数正态延迟的本地桩服务，
+ * 数据库和其余协作对象用Mockito替代
+ * 虚拟线程需要JDK 21+，在更低版本上运行时virtual模式会回退为平台线程池，输出中的executor一列会注明
+ * 参数：用户数（默认500） 线程池大小（默认10） 队列容量（默认100） 每平台并发上限（默认8）
+ * 运行：在IDE中直接运行main，或 mvn test-compile 后用 test classpath 执行
+ */
+public class UserOjServiceThroughput {
+
+    private static final int USERS = 500;
+    /** 模拟Tomcat默认的最大请求线程数 */
+    private static final int REQUEST_THREADS = 200;
+    /** 预热用户的ID从这里开始，与计量用户的用户名不重复，避免命中条件请求 */
+    private static final long WARMUP_USER_ID_OFFSET = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : USERS;
+        int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int maxConcurrency = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        System.out.printf("users=%d pool=%d queue=%d maxConcurrencyPerPlatform=%d java=%s%n",
+                users, poolSize, queueCapacity, maxConcurrency, System.getProperty("java.version"));
+        for (String mode : List.of("platform", "virtual")) {
+            try (OjHuntStubServer stub = OjHuntStubServer.create(0, OjHuntStubServer.PlatformProfile.builder()
+                            .latency(OjHuntStubServer.Latency.logNormal(150, 0.5))
+                            .build())
+                    .start()) {
+                ExecutorService ojApiExecutor = ojApiExecutor(mode, poolSize, queueCapacity);
+                UserOjServiceImpl service = newService(stub.getBaseUrl(), ojApiExecutor, maxConcurrency);
+                ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+
+                // 预热连接和JIT，不计入结果
+                run(service, requestThreads, Math.min(users, 50), WARMUP_USER_ID_OFFSET);
+                stub.resetRequestCounts();
+
+                long start = System.nanoTime();
+                Result result = run(service, requestThreads, users, 0);
+                long elapsedNanos = System.nanoTime() - start;
+
+                requestThreads.shutdownNow();
+                ojApiExecutor.shutdownNow();
+
+                long[] latencies = result.latenciesMs();
+                Arrays.sort(latencies);
+                System.out.printf("mode=%-8s executor=%-16s throughput=%7.1f users/s upstream=%d "
+                                + "p50=%dms p99=%dms max=%dms incomplete=%d%n",
+                        mode, ojApiExecutor instanceof ThreadPoolExecutor ? "platform-pool" : "virtual-threads",
+                        users / (elapsedNanos / 1e9), stub.getTotalRequestCount(),
+                        percentile(latencies, 50), percentile(latencies, 99), latencies[latencies.length - 1],
+                        result.incomplete());
+            }
+        }
+    }
+
+    /**
+     * 由ThreadPoolConfig按线上相同的方式创建ojApiExecutorService
+     */
+    private static ExecutorService ojApiExecutor(String mode, int poolSize, int queueCapacity) {
+        ThreadPoolConfig config = new ThreadPoolConfig(null);
+        ReflectionTestUtils.setField(config, "corePoolSize", poolSize);
+        ReflectionTestUtils.setField(config, "maxPoolSize", poolSize);
+        ReflectionTestUtils.setField(config, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(config, "keepAliveSeconds", 60);
+        ReflectionTestUtils.setField(config, "ojApiMode", mode);
+        return config.ojApiExecutorService();
+    }
+
+    private static UserOjServiceImpl newService(String baseUrl, ExecutorService ojApiExecutor, int maxConcurrency) {
+        OjHuntClientProperties properties = new OjHuntClientProperties();
+        properties.setMaxConcurrencyPerPlatform(maxConcurrency);
+        properties.setBulkheadMaxWaitMs(TimeUnit.SECONDS.toMillis(10));
+        // 只衡量线程池和舱壁，不让令牌桶限速
+        properties.getRateLimit().setEnabled(false);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+        PlatformCircuitBreaker circuitBreaker = new PlatformCircuitBreaker(properties);
+        OjHuntClient client = new OjHuntClient(httpClient,
+                new OjHuntResponseParser(new ObjectMapper(), properties),
+                properties,
+                new PlatformConcurrencyLimiter(properties),
+                circuitBreaker,
+                new PlatformRateLimiter(properties),
+                Caffeine.newBuilder().<PlatformUsernameKey, OjHuntValidator>build(),
+                ojApiExecutor);
+        ReflectionTestUtils.setField(client, "baseUrl", baseUrl);
+
+        // 每个用户在四个平台都绑定了账号，用户名由用户ID得出
+        UserOjMapper userOjMapper = Mockito.mock(UserOjMapper.class);
+        Mockito.when(userOjMapper.findByUserId(Mockito.anyLong())).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(0);
+            return UserOj.builder()
+                    .userId(userId)
+                    .luoguUsername("user" + userId)
+                    .leetcodeCnUsername("user" + userId)
+                    .codeforceUsername("user" + userId)
+                    .nowcoderUserId("user" + userId)
+                    .build();
+        });
+        AsyncLoadingCache<Long, PackedOjUserData> ojDataCache = Caffeine.newBuilder()
+                .buildAsync(userId -> null);
+        return new UserOjServiceImpl(ojApiExecutor,
+                userOjMapper,
+                client,
+                circuitBreaker,
+                ojDataCache,
+                Mockito.mock(OjPlatformDataCache.class),
+                new OjCacheProperties(),
+                Mockito.mock(AsyncOjUpdateService.class),
+                Mockito.mock(LastAccessTimeBuffer.class),
+                Mockito.mock(HybridRankingService.class),
+                Mockito.mock(CacheInvalidationBroadcaster.class),
+                Mockito.mock(RankIndexService.class),
+                new RestoredAgeRegistry(),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * 每个用户占用一个请求线程获取实时数据，记录该用户的总耗时；有平台未取到上游数据时计为不完整
+     */
+    private static Result run(UserOjServiceImpl service, ExecutorService requestThreads,
+                              int users, long firstUserId) throws Exception {
+        AtomicInteger incomplete = new AtomicInteger();
+        List<Future<Long>> tasks = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            long userId = firstUserId + i;
+            tasks.add(requestThreads.submit(() -> {
+                long start = System.nanoTime();
+                OjUserDataVo vo = service.getRealTimeOjUserDataVo(userId);
+                if (vo.getOjDataDtoList().size() < 4
+                        || vo.getOjDataDtoList().stream().map(OjDataDto::getSolved).anyMatch(solved -> solved == null)) {
+                    incomplete.incrementAndGet();
+                }
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }));
+        }
+        long[] latencies = new long[users];
+        for (int i = 0; i < users; i++) {
+            latencies[i] = tasks.get(i).get();
+        }
+        return new Result(latencies, incomplete.get());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private record Result(long[] latenciesMs, int incomplete) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.ita.home.service.impl.rank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RankIndex与逐个比较的朴素实现对照
+ */
+class RankIndexTest {
+
+    @Test
+    void ranksByAcDescThenSubmitAscWithTies() {
+        RankIndex index = new RankIndex();
+        index.put(1, 100, 300);
+        index.put(2, 100, 200);
+        index.put(3, 50, 60);
+        index.put(4, 100, 200);
+
+        assertEquals(1, index.rank(100, 200));
+        assertEquals(3, index.rank(100, 300));
+        assertEquals(4, index.rank(50, 60));
+        assertEquals(5, index.rank(0, 0));
+        assertEquals(4, index.size());
+
+        index.put(3, 200, 1000);
+        assertEquals(1, index.rank(200, 1000));
+        assertEquals(2, index.rank(100, 200));
+
+        index.remove(2);
+        assertFalse(index.contains(2));
+        assertTrue(index.contains(4));
+        assertEquals(3, index.size());
+        assertEquals(2, index.rank(100, 200));
+    }
+
+    @Test
+    void matchesNaiveCountUnderRandomUpdates() {
+        Random random = new Random(7);
+        RankIndex index = new RankIndex();
+        Map<Long, int[]> expected = new HashMap<>();
+
+        for (int op = 0; op < 20_000; op++) {
+            long userId = random.nextInt(500);
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                int ac = random.nextInt(30);
+                int submit = random.nextInt(30);
+                index.put(userId, ac, submit);
+                expected.put(userId, new int[]{ac, submit});
+            } else if (kind < 8) {
+                index.remove(userId);
+                expected.remove(userId);
+            } else {
+                int ac = random.nextInt(32);
+                int submit = random.nextInt(32);
+                long better = expected.values().stream()
+                        .filter(v -> v[0] > ac || (v[0] == ac && v[1] < submit))
+                        .count();
+                assertEquals(better + 1, index.rank(ac, submit));
+                assertEquals(expected.size(), index.size());
+            }
+        }
+    }
+}
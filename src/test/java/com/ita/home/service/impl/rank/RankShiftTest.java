@@ -0,0 +1,82 @@
+package com.ita.home.service.impl.rank;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * RankShift与RankIndex对照：变化前后用RankIndex重新求每个人的排名，差值应与RankShift给出的一致
+ */
+class RankShiftTest {
+
+    @Test
+    void tieBoundariesWhenImproving() {
+        // 从(10, 20)变为(12, 5)
+        RankShift shift = new RankShift(10, 20, 12, 5);
+        assertEquals(0, shift.deltaFor(12, 5), "与新成绩相同：并列，不受影响");
+        assertEquals(1, shift.deltaFor(12, 6), "紧随新成绩之后：被超过");
+        assertEquals(1, shift.deltaFor(10, 20), "与旧成绩相同：原来并列，现在落后");
+        assertEquals(0, shift.deltaFor(10, 21), "在旧成绩之后：一直落后");
+        assertEquals(-1, shift.moverDeltaFor(12, 5), "与新成绩相同的用户不再领先变化者");
+        assertEquals(0, shift.moverDeltaFor(10, 20), "与旧成绩相同的用户原本就不领先");
+    }
+
+    @Test
+    void tieBoundariesWhenWorsening() {
+        // 从(12, 5)变为(10, 20)
+        RankShift shift = new RankShift(12, 5, 10, 20);
+        assertEquals(0, shift.deltaFor(12, 5), "与旧成绩相同：原来并列，现在领先但排名不变");
+        assertEquals(-1, shift.deltaFor(12, 6), "原来落后，现在领先");
+        assertEquals(-1, shift.deltaFor(10, 20), "与新成绩相同：原来落后，现在并列");
+        assertEquals(0, shift.deltaFor(10, 21), "在新成绩之后：一直落后");
+        assertEquals(1, shift.moverDeltaFor(12, 5), "与旧成绩相同的用户现在领先变化者");
+        assertEquals(0, shift.moverDeltaFor(10, 20), "与新成绩相同的用户并列");
+        assertTrue(new RankShift(3, 4, 3, 4).isNoop());
+    }
+
+    @Test
+    void matchesRankIndexUnderRandomMoves() {
+        Random random = new Random(11);
+        RankIndex index = new RankIndex();
+        Map<Long, int[]> scores = new HashMap<>();
+        for (long userId = 0; userId < 300; userId++) {
+            int[] score = {random.nextInt(15), random.nextInt(15)};
+            scores.put(userId, score);
+            index.put(userId, score[0], score[1]);
+        }
+
+        for (int move = 0; move < 2_000; move++) {
+            long mover = random.nextInt(300);
+            int[] oldScore = scores.get(mover);
+            int[] newScore = {random.nextInt(15), random.nextInt(15)};
+            RankShift shift = new RankShift(oldScore[0], oldScore[1], newScore[0], newScore[1]);
+
+            Map<Long, Integer> before = new HashMap<>();
+            scores.forEach((userId, score) -> before.put(userId, index.rank(score[0], score[1])));
+            int expectedMoverRank = before.get(mover);
+            for (Map.Entry<Long, int[]> other : scores.entrySet()) {
+                if (other.getKey() != mover) {
+                    expectedMoverRank += shift.moverDeltaFor(other.getValue()[0], other.getValue()[1]);
+                }
+            }
+
+            index.put(mover, newScore[0], newScore[1]);
+            scores.put(mover, newScore);
+
+            for (Map.Entry<Long, int[]> other : scores.entrySet()) {
+                if (other.getKey() == mover) {
+                    continue;
+                }
+                int[] score = other.getValue();
+                assertEquals(before.get(other.getKey()) + shift.deltaFor(score[0], score[1]),
+                        index.rank(score[0], score[1]));
+            }
+            assertEquals(expectedMoverRank, index.rank(newScore[0], newScore[1]));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.ita.home.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ita.home.model.dto.OjUserDataDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地OJHunt桩服务，提供 /api/crawlers/{platform}/{username}
+ * 按平台配置延迟分布、错误率、超时率和solvedList大小，用于集成测试和压测时替代真实的ojhunt.com
+ * <p>
+ * 集成测试中：{@code OjHuntStubServer.create().start()}，再把 ita.oj.target 指向 {@link #getBaseUrl()}；
+ * 压测时可直接运行 {@link #main(String[])} 启动独立进程。
+ */
+@Slf4j
+public class OjHuntStubServer implements AutoCloseable {
+
+    private static final String CONTEXT_PATH = "/api/crawlers";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, PlatformProfile> profiles = new ConcurrentHashMap<>();
+    private final Map<String, int[]> userOverrides = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final PlatformProfile defaultProfile;
+    private final int port;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private OjHuntStubServer(int port, PlatformProfile defaultProfile) {
+        this.port = port;
+        this.defaultProfile = defaultProfile;
+    }
+
+    /**
+     * 使用随机端口和无延迟、无故障的默认配置创建桩服务
+     */
+    public static OjHuntStubServer create() {
+        return create(0, PlatformProfile.builder().build());
+    }
+
+    public static OjHuntStubServer create(int port, PlatformProfile defaultProfile) {
+        return new OjHuntStubServer(port, defaultProfile);
+    }
+
+    /**
+     * 为指定平台（平台代码，如 codeforces、leetcode_cn）设置单独的配置
+     */
+    public OjHuntStubServer platform(String platformCode, PlatformProfile profile) {
+        profiles.put(platformCode, profile);
+        return this;
+    }
+
+    /**
+     * 固定某个用户返回的解题数和提交数（默认由用户名哈希得出），用于模拟数据变化
+     */
+    public OjHuntStubServer userData(String platformCode, String username, int solved, int submissions) {
+        userOverrides.put(platformCode + ":" + username, new int[]{solved, submissions});
+        return this;
+    }
+
+    public OjHuntStubServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        // 延迟和超时通过阻塞处理线程模拟，需要足够多的线程避免请求在桩服务内部排队
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext(CONTEXT_PATH, this::handle);
+        server.start();
+        log.info("OJHunt桩服务已启动: {}", getBaseUrl());
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CONTEXT_PATH;
+    }
+
+    /**
+     * 获取指定平台收到的请求数
+     */
+    public long getRequestCount(String platformCode) {
+        LongAdder count = requestCounts.get(platformCode);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getTotalRequestCount() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public void resetRequestCounts() {
+        requestCounts.clear();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            // 中断仍在模拟超时的处理线程
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] segments = exchange.getRequestURI().getRawPath()
+                    .substring(CONTEXT_PATH.length()).split("/");
+            if (segments.length != 3 || !"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            String platformCode = URLDecoder.decode(segments[1], StandardCharsets.UTF_8);
+            String username = URLDecoder.decode(segments[2], StandardCharsets.UTF_8);
+            requestCounts.computeIfAbsent(platformCode, k -> new LongAdder()).increment();
+
+            PlatformProfile profile = profiles.getOrDefault(platformCode, defaultProfile);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            if (random.nextDouble() < profile.getTimeoutRate()) {
+                // 模拟上游无响应：挂起直到客户端放弃或桩服务关闭
+                TimeUnit.MILLISECONDS.sleep(profile.getHangMs());
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(profile.getLatency().nextDelayMs(random));
+
+            if (random.nextDouble() < profile.getErrorRate()) {
+                exchange.sendResponseHeaders(profile.getErrorStatus(), -1);
+                return;
+            }
+
+            byte[] body = random.nextDouble() < profile.getErrorPayloadRate()
+                    ? objectMapper.writeValueAsBytes(new OjUserDataDto(true, null))
+                    : objectMapper.writeValueAsBytes(buildPayload(platformCode, username, profile));
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (profile.isEtagEnabled()) {
+                String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OjUserDataDto buildPayload(String platformCode, String username, PlatformProfile profile) {
+        int[] override = userOverrides.get(platformCode + ":" + username);
+        int solved;
+        int submissions;
+        if (override != null) {
+            solved = override[0];
+            submissions = override[1];
+        } else {
+            // 同一用户每次返回相同数据，条件请求和缓存命中才有意义
+            int hash = (platformCode + ":" + username).hashCode() & Integer.MAX_VALUE;
+            solved = hash % 2000;
+            submissions = solved + hash % 5000;
+        }
+
+        List<String> solvedList = new ArrayList<>(profile.getSolvedListSize());
+        for (int i = 0; i < profile.getSolvedListSize(); i++) {
+            solvedList.add(platformCode.toUpperCase() + "-" + (1000 + i));
+        }
+        return new OjUserDataDto(false, OjUserDataDto.UserData.builder()
+                .solved(solved)
+                .submissions(submissions)
+                .solvedList(solvedList)
+                .build());
+    }
+
+    /**
+     * 单个平台的桩行为配置
+     */
+    @Getter
+    @Builder
+    public static class PlatformProfile {
+        /** 响应延迟分布 */
+        @Builder.Default
+        private final Latency latency = Latency.fixed(0);
+        /** 返回错误状态码的比例 */
+        @Builder.Default
+        private final double errorRate = 0;
+        /** 错误时返回的HTTP状态码 */
+        @Builder.Default
+        private final int errorStatus = 500;
+        /** 返回 {"error":true} 的比例 */
+        @Builder.Default
+        private final double errorPayloadRate = 0;
+        /** 不响应（挂起hangMs）的比例 */
+        @Builder.Default
+        private final double timeoutRate = 0;
+        /** 模拟超时时的挂起时间（毫秒） */
+        @Builder.Default
+        private final long hangMs = 30_000;
+        /** solvedList条目数，用于模拟大响应体 */
+        @Builder.Default
+        private final int solvedListSize = 0;
+        /** 是否返回ETag并响应If-None-Match */
+        @Builder.Default
+        private final boolean etagEnabled = true;
+    }
+
+    /**
+     * 响应延迟分布
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        long nextDelayMs(ThreadLocalRandom random);
+
+        static Latency fixed(long ms) {
+            return random -> ms;
+        }
+
+        static Latency uniform(long minMs, long maxMs) {
+            return random -> random.nextLong(minMs, maxMs + 1);
+        }
+
+        /**
+         * 对数正态分布，接近真实上游的长尾延迟
+         * @param medianMs 中位数
+         * @param sigma    形状参数，越大尾部越长（0.5左右时p99约为中位数的3倍）
+         */
+        static Latency logNormal(long medianMs, double sigma) {
+            double mu = Math.log(medianMs);
+            return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+        }
+    }
+
+    /**
+     * 以独立进程启动，供压测使用，参数为端口号（默认18080）
+     * 启动后将 ita.oj.target 配置为 http://127.0.0.1:端口/api/crawlers
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        PlatformProfile profile = PlatformProfile.builder()
+                .latency(Latency.logNormal(150, 0.5))
+                .errorRate(0.01)
+                .timeoutRate(0.005)
+                .solvedListSize(500)
+                .build();
+        OjHuntStubServer stub = create(port, profile)
+                .platform("codeforces", PlatformProfile.builder()
+                        .latency(Latency.logNormal(400, 0.8))
+                        .errorRate(0.05)
+                        .timeoutRate(0.01)
+                        .solvedListSize(2000)
+                        .build())
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+    }
+}